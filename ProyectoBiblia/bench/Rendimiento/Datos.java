@@ -0,0 +1,65 @@
+package Rendimiento;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Generación de claves y secuencias de consulta reproducibles para los benchmarks.
+ *
+ * @author cvaro
+ */
+final class Datos {
+
+    /** Número de consultas precalculadas; potencia de dos para recorrerlas con una máscara */
+    static final int CONSULTAS = 1 << 16;
+
+    private Datos() {
+    }
+
+    /**
+     * Genera n palabras distintas de 3 a 10 letras minúsculas, en orden aleatorio.
+     */
+    static String[] palabras(int n, long semilla) {
+        Random r = new Random(semilla);
+        HashSet<String> vistas = new HashSet<>(2 * n);
+        String[] palabras = new String[n];
+        int i = 0;
+        while (i < n) {
+            int longitud = 3 + r.nextInt(8);
+            char[] c = new char[longitud];
+            for (int j = 0; j < longitud; j++) c[j] = (char) ('a' + r.nextInt(26));
+            String p = new String(c);
+            if (vistas.add(p)) palabras[i++] = p;
+        }
+        return palabras;
+    }
+
+    /**
+     * Genera CONSULTAS posiciones en [0, n) según una distribución.
+     *
+     * @param distribucion "uniforme", "zipf" (pocas claves concentran la mayoría
+     *        de las consultas, como las palabras de un texto) o "secuencial"
+     */
+    static int[] consultas(int n, String distribucion, long semilla) {
+        Random r = new Random(semilla);
+        int[] q = new int[CONSULTAS];
+        switch (distribucion) {
+            case "uniforme" -> {
+                for (int i = 0; i < q.length; i++) q[i] = r.nextInt(n);
+            }
+            case "zipf" -> {
+                // Inversa de la acumulada de Zipf con exponente 1, aproximada por ln
+                double h = Math.log(n) + 0.5772;
+                for (int i = 0; i < q.length; i++) {
+                    int k = (int) Math.exp(r.nextDouble() * h) - 1;
+                    q[i] = Math.min(n - 1, Math.max(0, k));
+                }
+            }
+            case "secuencial" -> {
+                for (int i = 0; i < q.length; i++) q[i] = i % n;
+            }
+            default -> throw new IllegalArgumentException("distribucion desconocida: " + distribucion);
+        }
+        return q;
+    }
+}
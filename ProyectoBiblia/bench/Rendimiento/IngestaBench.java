@@ -0,0 +1,94 @@
+package Rendimiento;
+
+import TablaOrdenada.TablaDeSimbolosOrdenada;
+import TablaOrdenada.TablaFrecuencias;
+import Txt.LeerArchivo;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Limpieza de palabras y procesamiento completo de sagradas.txt.
+ *
+ * La ruta del texto es el parámetro "archivo" (por defecto la del proyecto,
+ * relativa al directorio desde el que se ejecuta ant); se puede cambiar con
+ * la opción -p archivo=... de JMH.
+ *
+ * @author cvaro
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class IngestaBench {
+
+    @Param({"src/Txt/sagradas.txt"})
+    String archivo;
+
+    /** Tokens crudos del texto, separados por espacios, para medir la limpieza */
+    private String[] tokens;
+
+    private int i;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        tokens = Files.readString(Path.of(archivo)).split("\\s+");
+    }
+
+    /**
+     * Limpia un token del texto real por invocación.
+     */
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String limpiarPalabra() {
+        String t = tokens[i];
+        if (++i == tokens.length) i = 0;
+        return LeerArchivo.limpiarPalabra(t);
+    }
+
+    /**
+     * Procesa el archivo completo en una TablaDeSimbolosOrdenada.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public void procesarArchivo(Blackhole bh) {
+        TablaDeSimbolosOrdenada<String, Integer> tabla = new TablaDeSimbolosOrdenada<>();
+        LeerArchivo.procesarArchivo(archivo, tabla);
+        bh.consume(tabla);
+    }
+
+    /**
+     * Procesa el archivo completo en una TablaFrecuencias con el conteo secuencial.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public void procesarArchivoFrecuencias(Blackhole bh) {
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>();
+        LeerArchivo.procesarArchivo(archivo, tabla);
+        bh.consume(tabla);
+    }
+
+    /**
+     * Procesa el archivo completo en una TablaFrecuencias con el conteo paralelo.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public void procesarArchivoParalelo(Blackhole bh) {
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>();
+        LeerArchivo.procesarArchivoParalelo(archivo, tabla);
+        bh.consume(tabla);
+    }
+}
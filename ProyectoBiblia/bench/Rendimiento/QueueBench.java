@@ -0,0 +1,52 @@
+package Rendimiento;
+
+import TablaOrdenada.Queue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encolar y recorrer una Queue, la cola enlazada que usan los recorridos de la tabla.
+ *
+ * @author cvaro
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBench {
+
+    @Param({"100", "10000"})
+    int tamanio;
+
+    private String[] elementos;
+
+    private Queue<String> llena;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        elementos = Datos.palabras(tamanio, 1);
+        llena = new Queue<>();
+        for (String e : elementos) llena.enqueue(e);
+    }
+
+    /**
+     * Encola tamanio elementos en una cola nueva.
+     */
+    @Benchmark
+    public Queue<String> encolar() {
+        Queue<String> q = new Queue<>();
+        for (String e : elementos) q.enqueue(e);
+        return q;
+    }
+
+    /**
+     * Recorre una cola con tamanio elementos.
+     */
+    @Benchmark
+    public void iterar(Blackhole bh) {
+        for (String e : llena) bh.consume(e);
+    }
+}
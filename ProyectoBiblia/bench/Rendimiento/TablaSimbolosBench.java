@@ -0,0 +1,131 @@
+package Rendimiento;
+
+import TablaOrdenada.Rango;
+import TablaOrdenada.TablaDeSimbolosOrdenada;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Operaciones de TablaDeSimbolosOrdenada con distintos tamaños de tabla y
+ * distribuciones de las claves consultadas.
+ *
+ * Cada benchmark consulta la siguiente clave de una secuencia precalculada,
+ * así que el costo medido es el de la operación y no el de elegir la clave.
+ * put y delete se miden juntos (insertar una clave nueva y quitarla) para
+ * que la tabla conserve su tamaño entre invocaciones. Cada benchmark corre
+ * con los arrays paralelos y con el árbol rojo-negro.
+ *
+ * @author cvaro
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablaSimbolosBench {
+
+    @Param({"1000", "30000", "200000"})
+    int tamanio;
+
+    @Param({"uniforme", "zipf", "secuencial"})
+    String distribucion;
+
+    @Param({"ARREGLOS", "ARBOL"})
+    TablaDeSimbolosOrdenada.Implementacion implementacion;
+
+    /** Número de claves que recorre cada keys(lo, hi) */
+    private static final int ANCHO_RANGO = 64;
+
+    private TablaDeSimbolosOrdenada<String, Integer> tabla;
+
+    /** Claves presentes en la tabla */
+    private String[] claves;
+
+    /** Claves ausentes, para medir inserciones y búsquedas fallidas */
+    private String[] ausentes;
+
+    /** Posiciones de las claves a consultar, según la distribución */
+    private int[] consultas;
+
+    /** Siguiente consulta */
+    private int i;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        String[] todas = Datos.palabras(2 * tamanio, 42);
+        claves = new String[tamanio];
+        ausentes = new String[tamanio];
+        System.arraycopy(todas, 0, claves, 0, tamanio);
+        System.arraycopy(todas, tamanio, ausentes, 0, tamanio);
+        Integer[] valores = new Integer[tamanio];
+        for (int k = 0; k < tamanio; k++) valores[k] = k;
+        tabla = new TablaDeSimbolosOrdenada<>(implementacion);
+        tabla.construir(claves, valores, tamanio);
+        consultas = Datos.consultas(tamanio, distribucion, 7);
+    }
+
+    private int siguiente() {
+        return consultas[i++ & (Datos.CONSULTAS - 1)];
+    }
+
+    @Benchmark
+    public Integer get() {
+        return tabla.get(claves[siguiente()]);
+    }
+
+    @Benchmark
+    public Integer getAusente() {
+        return tabla.get(ausentes[siguiente()]);
+    }
+
+    @Benchmark
+    public int rank() {
+        return tabla.rank(claves[siguiente()]);
+    }
+
+    @Benchmark
+    public String floor() {
+        return tabla.floor(ausentes[siguiente()]);
+    }
+
+    @Benchmark
+    public String ceiling() {
+        return tabla.ceiling(claves[siguiente()]);
+    }
+
+    /**
+     * Reemplaza el valor de una clave existente: búsqueda sin desplazamientos.
+     */
+    @Benchmark
+    public void putExistente() {
+        int k = siguiente();
+        tabla.put(claves[k], k);
+    }
+
+    /**
+     * Inserta una clave nueva y la elimina: dos búsquedas y dos desplazamientos.
+     */
+    @Benchmark
+    public void putDelete() {
+        String clave = ausentes[siguiente()];
+        tabla.put(clave, 0);
+        tabla.delete(clave);
+    }
+
+    /**
+     * Recorre ANCHO_RANGO claves a partir de una clave consultada.
+     */
+    @Benchmark
+    public void keysRango(Blackhole bh) {
+        int desde = tabla.rank(claves[siguiente()]);
+        int hasta = Math.min(tamanio - 1, desde + ANCHO_RANGO - 1);
+        Rango<String> rango = tabla.keys(tabla.select(desde), tabla.select(hasta));
+        Rango<String>.Cursor cursor = rango.cursor();
+        while (cursor.siguiente()) {
+            bh.consume(cursor.clave());
+            bh.consume(tabla.valorEn(cursor.posicion()));
+        }
+    }
+}
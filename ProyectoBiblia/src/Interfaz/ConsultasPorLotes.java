@@ -0,0 +1,241 @@
+package Interfaz;
+
+import TablaOrdenada.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Ejecuta consultas sobre la tabla de palabras leídas de un archivo o de la
+ * entrada estándar, sin menú, escribiendo los resultados en un único Writer
+ * con buffer.
+ *
+ * Cada línea es una consulta: la operación y sus argumentos separados por
+ * espacios. Las líneas vacías y las que empiezan con '#' se ignoran.
+ * <pre>
+ *   get palabra        contains palabra     rank palabra     select k
+ *   floor palabra      ceiling palabra      range lo hi      prefix texto
+ *   substring texto    top k                stats
+ * </pre>
+ *
+ * Las consultas se leen, ejecutan y escriben una tras otra en flujo, sin
+ * guardar la entrada ni la salida completas y sin vaciar el buffer en cada
+ * línea. En formato TSV cada resultado es una línea con la operación, sus
+ * argumentos y los valores separados por tabuladores; las operaciones que
+ * retornan varias palabras escriben una línea por palabra. En formato JSONL
+ * cada consulta produce exactamente un objeto JSON por línea.
+ *
+ * @author cvaro
+ */
+public class ConsultasPorLotes {
+
+    /**
+     * Formato de la salida.
+     */
+    public enum Formato { TSV, JSONL }
+
+    /** Separa los campos de una consulta */
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /** Tabla consultada */
+    private final ConsultaFrecuencias<String> tabla;
+
+    /** Formato de la salida */
+    private final Formato formato;
+
+    /** Índices que se construyen la primera vez que una consulta los necesita */
+    private IndicePrefijos prefijos;
+    private IndiceSubcadenas subcadenas;
+    private IndiceFrecuencias<String> porFrecuencia;
+
+    /** Constructor JSON reutilizado entre consultas */
+    private final Json json = new Json();
+
+    /**
+     * Prepara la ejecución de consultas sobre una tabla.
+     *
+     * @param tabla tabla a consultar
+     * @param formato formato de la salida
+     */
+    public ConsultasPorLotes(ConsultaFrecuencias<String> tabla, Formato formato) {
+        this.tabla = tabla;
+        this.formato = formato;
+    }
+
+    /**
+     * Ejecuta todas las consultas de la entrada y escribe sus resultados.
+     *
+     * Una consulta inválida produce una línea de error y no detiene el lote.
+     * Al terminar vacía la salida, pero no la cierra.
+     *
+     * @param entrada consultas, una por línea
+     * @param salida destino de los resultados; conviene que tenga un buffer grande
+     * @return número de consultas ejecutadas
+     * @throws IOException si falla la lectura o la escritura
+     */
+    public long ejecutar(BufferedReader entrada, Writer salida) throws IOException {
+        long consultas = 0;
+        String linea;
+        while ((linea = entrada.readLine()) != null) {
+            String consulta = linea.trim();
+            if (consulta.isEmpty() || consulta.charAt(0) == '#') continue;
+            String[] campos = ESPACIOS.split(consulta.toLowerCase());
+            try {
+                ejecutar(campos, salida);
+            } catch (IllegalArgumentException e) {
+                // La consulta cruda puede traer tabuladores, que romperían las columnas
+                if (formato == Formato.TSV) fila(salida, "error", String.join(" ", campos), e.getMessage());
+                else linea(salida, json.reiniciar().abrir().campo("consulta", consulta).campo("error", e.getMessage()).cerrar());
+            }
+            consultas++;
+        }
+        salida.flush();
+        return consultas;
+    }
+
+    /**
+     * Ejecuta una consulta ya separada en campos.
+     */
+    private void ejecutar(String[] c, Writer salida) throws IOException {
+        switch (c[0]) {
+            case "get" -> {
+                int f = tabla.get(argumento(c, 1));
+                if (formato == Formato.TSV) fila(salida, c[0], c[1], Integer.toString(f));
+                else linea(salida, json.reiniciar().abrir().campo("op", c[0]).campo("palabra", c[1]).campo("frecuencia", f).cerrar());
+            }
+            case "contains" -> {
+                boolean existe = tabla.contains(argumento(c, 1));
+                if (formato == Formato.TSV) fila(salida, c[0], c[1], Boolean.toString(existe));
+                else linea(salida, json.reiniciar().abrir().campo("op", c[0]).campo("palabra", c[1]).campo("existe", existe).cerrar());
+            }
+            case "rank" -> {
+                int r = tabla.rank(argumento(c, 1));
+                if (formato == Formato.TSV) fila(salida, c[0], c[1], Integer.toString(r));
+                else linea(salida, json.reiniciar().abrir().campo("op", c[0]).campo("palabra", c[1]).campo("rank", r).cerrar());
+            }
+            case "select" -> {
+                int k = entero(c, 1);
+                if (k < 0 || k >= tabla.size())
+                    throw new IllegalArgumentException("k debe estar entre 0 y " + (tabla.size() - 1));
+                String palabra = tabla.select(k);
+                int f = tabla.frecuenciaEn(k);
+                if (formato == Formato.TSV) fila(salida, c[0], c[1], palabra, Integer.toString(f));
+                else linea(salida, json.reiniciar().abrir().campo("op", c[0]).campo("k", k).campo("palabra", palabra).campo("frecuencia", f).cerrar());
+            }
+            case "floor", "ceiling" -> {
+                String palabra = argumento(c, 1);
+                String r = c[0].equals("floor") ? tabla.floor(palabra) : tabla.ceiling(palabra);
+                int f = r == null ? 0 : tabla.get(r);
+                if (formato == Formato.TSV) fila(salida, c[0], c[1], r == null ? "" : r, Integer.toString(f));
+                else linea(salida, json.reiniciar().abrir().campo("op", c[0]).campo("palabra", c[1]).campo("resultado", r).campo("frecuencia", f).cerrar());
+            }
+            case "range" -> {
+                Rango<String> rango = tabla.keys(argumento(c, 1), argumento(c, 2));
+                lista(salida, c, rango.desde(), rango.hasta(), null);
+            }
+            case "prefix" -> {
+                int[] rango = prefijos().rangoPrefijo(c.length > 1 ? c[1] : "");
+                lista(salida, c, rango[0], rango[1], null);
+            }
+            case "substring" -> {
+                int[] posiciones = subcadenas().contienen(argumento(c, 1));
+                lista(salida, c, 0, posiciones.length, posiciones);
+            }
+            case "top" -> top(salida, c, entero(c, 1));
+            case "stats" -> {
+                if (formato == Formato.TSV) {
+                    fila(salida, c[0], "unicas", Integer.toString(tabla.size()));
+                    fila(salida, c[0], "total", Long.toString(tabla.totalApariciones()));
+                    fila(salida, c[0], "hapax", Integer.toString(tabla.hapax()));
+                    fila(salida, c[0], "repetidas", Integer.toString(tabla.repetidas()));
+                } else {
+                    linea(salida, json.reiniciar().abrir().campo("op", c[0])
+                            .campo("unicas", tabla.size())
+                            .campo("total", tabla.totalApariciones())
+                            .campo("hapax", tabla.hapax())
+                            .campo("repetidas", tabla.repetidas())
+                            .cerrar());
+                }
+            }
+            default -> throw new IllegalArgumentException("operacion desconocida: " + c[0]);
+        }
+    }
+
+    /**
+     * Escribe las palabras de las posiciones [desde, hasta); si se da
+     * posiciones, las posiciones son posiciones[desde..hasta).
+     */
+    private void lista(Writer salida, String[] c, int desde, int hasta, int[] posiciones) throws IOException {
+        String argumentos = String.join(" ", Arrays.copyOfRange(c, 1, c.length));
+        if (formato == Formato.JSONL) {
+            json.reiniciar().abrir().campo("op", c[0]).campo("consulta", argumentos).campo("total", hasta - desde).nombre("palabras").abrirLista();
+        }
+        for (int i = desde; i < hasta; i++) {
+            int k = posiciones == null ? i : posiciones[i];
+            String palabra = tabla.select(k);
+            int f = tabla.frecuenciaEn(k);
+            if (formato == Formato.TSV) fila(salida, c[0], argumentos, palabra, Integer.toString(f));
+            else json.abrir().campo("palabra", palabra).campo("frecuencia", f).cerrarObjeto();
+        }
+        if (formato == Formato.JSONL) linea(salida, json.cerrarLista().cerrar());
+    }
+
+    /**
+     * Escribe las k palabras más frecuentes.
+     */
+    private void top(Writer salida, String[] c, int k) throws IOException {
+        IndiceFrecuencias<String>.Cursor cursor = porFrecuencia().masFrecuentes();
+        if (formato == Formato.JSONL) json.reiniciar().abrir().campo("op", c[0]).campo("k", k).nombre("palabras").abrirLista();
+        for (int i = 0; i < k && cursor.siguiente(); i++) {
+            if (formato == Formato.TSV) fila(salida, c[0], c[1], cursor.clave(), Integer.toString(cursor.frecuencia()));
+            else json.abrir().campo("palabra", cursor.clave()).campo("frecuencia", cursor.frecuencia()).cerrarObjeto();
+        }
+        if (formato == Formato.JSONL) linea(salida, json.cerrarLista().cerrar());
+    }
+
+    private static String argumento(String[] c, int i) {
+        if (i >= c.length) throw new IllegalArgumentException("faltan argumentos para " + c[0]);
+        return c[i];
+    }
+
+    private static int entero(String[] c, int i) {
+        try {
+            return Integer.parseInt(argumento(c, i));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(c[i] + " no es un entero");
+        }
+    }
+
+    /**
+     * Escribe una línea TSV con los campos dados.
+     */
+    private static void fila(Writer salida, String... campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) salida.write('\t');
+            salida.write(campos[i]);
+        }
+        salida.write('\n');
+    }
+
+    private static void linea(Writer salida, String texto) throws IOException {
+        salida.write(texto);
+        salida.write('\n');
+    }
+
+    private IndicePrefijos prefijos() {
+        if (prefijos == null) prefijos = new IndicePrefijos(tabla);
+        return prefijos;
+    }
+
+    private IndiceSubcadenas subcadenas() {
+        if (subcadenas == null) subcadenas = new IndiceSubcadenas(tabla);
+        return subcadenas;
+    }
+
+    private IndiceFrecuencias<String> porFrecuencia() {
+        if (porFrecuencia == null) porFrecuencia = new IndiceFrecuencias<>(tabla);
+        return porFrecuencia;
+    }
+}
@@ -0,0 +1,112 @@
+package Interfaz;
+
+/**
+ * Construye un documento JSON de forma incremental, sin dependencias externas.
+ *
+ * Lleva la cuenta de si hace falta una coma antes del siguiente elemento.
+ * Lo usan el servidor HTTP y el modo por lotes.
+ *
+ * @author cvaro
+ */
+class Json {
+
+    private final StringBuilder sb = new StringBuilder(256);
+
+    /** Si el siguiente elemento del objeto o lista actual va precedido de coma */
+    private boolean coma;
+
+    private void separar() {
+        if (coma) sb.append(',');
+        coma = true;
+    }
+
+    Json abrir() {
+        separar();
+        sb.append('{');
+        coma = false;
+        return this;
+    }
+
+    Json cerrarObjeto() {
+        sb.append('}');
+        coma = true;
+        return this;
+    }
+
+    String cerrar() {
+        return cerrarObjeto().sb.toString();
+    }
+
+    /**
+     * Descarta lo escrito para reutilizar el constructor en otro documento.
+     */
+    Json reiniciar() {
+        sb.setLength(0);
+        coma = false;
+        return this;
+    }
+
+    Json abrirLista() {
+        sb.append('[');
+        coma = false;
+        return this;
+    }
+
+    Json cerrarLista() {
+        sb.append(']');
+        coma = true;
+        return this;
+    }
+
+    Json nombre(String nombre) {
+        separar();
+        cadena(nombre);
+        sb.append(':');
+        coma = false;
+        return this;
+    }
+
+    Json campo(String nombre, String valor) {
+        nombre(nombre);
+        if (valor == null) sb.append("null");
+        else cadena(valor);
+        coma = true;
+        return this;
+    }
+
+    Json campo(String nombre, long valor) {
+        nombre(nombre);
+        sb.append(valor);
+        coma = true;
+        return this;
+    }
+
+    Json campo(String nombre, boolean valor) {
+        nombre(nombre);
+        sb.append(valor);
+        coma = true;
+        return this;
+    }
+
+    /**
+     * Escribe una cadena entre comillas escapando lo que JSON exige.
+     */
+    private void cadena(String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
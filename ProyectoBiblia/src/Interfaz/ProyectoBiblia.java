@@ -3,8 +3,29 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
  */
 package Interfaz;
+import Txt.CorpusPorLibros;
+import Txt.IndicePosicional;
 import Txt.LeerArchivo;
 import TablaOrdenada.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Scanner;
 /**
 * Aplicación principal del Proyecto Biblia para análisis de frecuencia de palabras.
@@ -17,9 +38,42 @@ import java.util.Scanner;
  */
 public class ProyectoBiblia {
 
-    /** Tabla de símbolos ordenada que almacena las palabras y sus frecuencias */
-    private static TablaDeSimbolosOrdenada<String, Integer> tablaPalabras;
+    /**
+     * Tabla ordenada con las palabras y sus frecuencias. Al arrancar su versión
+     * vigente es la instantánea mapeada desde disco o la tabla compacta; las
+     * opciones del menú que la modifican publican una versión nueva con copia
+     * en escritura, así que quien conserve una versión anterior (el servidor,
+     * el modo por lotes o un índice) la sigue viendo completa y sin cambios.
+     */
+    private static final TablaFrecuenciasConcurrente<String> tablaPalabras = new TablaFrecuenciasConcurrente<>();
     
+    /** Ruta del archivo de texto que se analiza */
+    private static final String ARCHIVO = "src/Txt/sagradas.txt";
+
+    /** Instantánea binaria de la tabla, para no volver a procesar el texto en cada arranque */
+    private static final String INSTANTANEA = "build/sagradas.frec";
+
+    /** Índice posicional por versículo, construido la primera vez que se consulta */
+    private static IndicePosicional indiceVersiculos;
+
+    /** Índice de prefijos de tablaPalabras; se descarta cuando la tabla se modifica */
+    private static IndicePrefijos indicePrefijos;
+
+    /** Índice de subcadenas de tablaPalabras; se descarta cuando la tabla se modifica */
+    private static IndiceSubcadenas indiceSubcadenas;
+
+    /** Índice por frecuencia de tablaPalabras; se descarta cuando la tabla se modifica */
+    private static IndiceFrecuencias<String> indiceFrecuencias;
+
+    /** Índice de búsqueda difusa de tablaPalabras; se descarta cuando la tabla se modifica */
+    private static IndiceDifuso indiceDifuso;
+
+    /** Tablas de n-gramas del texto por n, construidas la primera vez que se piden */
+    private static TablaNGramas[] tablasNGramas = new TablaNGramas[TablaNGramas.MAXIMO_N + 1];
+
+    /** Frecuencias del texto por libro, contadas la primera vez que se piden */
+    private static CorpusPorLibros corpusPorLibros;
+
     /** Scanner para entrada de datos del usuario */
     private static Scanner scanner = new Scanner(System.in);
     
@@ -28,20 +82,49 @@ public class ProyectoBiblia {
      * 
      * Inicializa la tabla de símbolos, carga el archivo de texto,
      * procesa las palabras y muestra el menú interactivo para el usuario.
+     * Con "--servidor [puerto]" en lugar del menú atiende consultas HTTP
+     * (ver ServidorConsultas) hasta que se detenga el proceso; POST /recargar
+     * vuelve a leer sagradas.txt sin dejar de responder. Con
+     * "--lotes [archivo] [--jsonl]" ejecuta las consultas del archivo (o de
+     * la entrada estándar) con ConsultasPorLotes y termina. Con
+     * "--flujo [archivo...]" cuenta las palabras de los archivos indicados,
+     * uno tras otro, o de la entrada estándar, con LeerArchivo.procesarFlujo(),
+     * muestra el resumen y termina, sin cargar sagradas.txt.
      *
-     * @param args argumentos de línea de comandos (no utilizados)
+     * @param args argumentos de línea de comandos
      */
     public static void main(String[] args) {
+        boolean lotes = args.length > 0 && args[0].equals("--lotes");
+        PrintStream resultados = System.out;
+        if (lotes) {
+            // La salida estándar queda solo para los resultados; los mensajes van a stderr
+            System.setOut(System.err);
+        }
         System.out.println("=== PROYECTO BIBLIA ===");
         System.out.println("Analisis completo de frecuencia de palabras");
         
         try {
             
-            tablaPalabras = new TablaDeSimbolosOrdenada<>(100000);
+            if (args.length > 0 && args[0].equals("--flujo")) {
+                procesarFlujo(args);
+                return;
+            }
             
-            System.out.println("Cargando y procesando archivo sagradas.txt...");
             cargarArchivo();
             
+            if (args.length > 0 && args[0].equals("--servidor")) {
+                int puerto = args.length > 1 ? Integer.parseInt(args[1]) : ServidorConsultas.PUERTO;
+                ServidorConsultas servidor = new ServidorConsultas(tablaPalabras.instantanea(), ProyectoBiblia::leerTabla, puerto);
+                servidor.iniciar();
+                System.out.println("Servidor escuchando en http://localhost:" + servidor.puerto() + "/");
+                return;
+            }
+            
+            if (lotes) {
+                ejecutarLotes(args, resultados);
+                return;
+            }
+            
             mostrarMenu();
             
         } catch (Exception e) {
@@ -49,25 +132,126 @@ public class ProyectoBiblia {
         }
     }
     
-  /**
-     * Carga y procesa el archivo de texto directamente en la tabla de símbolos.
+    /**
+     * Ejecuta el modo por lotes con los argumentos de "--lotes".
+     * 
+     * @param args argumentos de línea de comandos; args[0] es "--lotes"
+     * @param resultados salida estándar original, donde se escriben los resultados
+     * @throws IOException si falla la lectura de las consultas o la escritura
+     */
+    private static void ejecutarLotes(String[] args, PrintStream resultados) throws IOException {
+        String archivo = null;
+        ConsultasPorLotes.Formato formato = ConsultasPorLotes.Formato.TSV;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--jsonl")) formato = ConsultasPorLotes.Formato.JSONL;
+            else if (!args[i].equals("-")) archivo = args[i];
+        }
+        resultados.flush();
+        BufferedReader entrada = archivo == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(archivo), StandardCharsets.UTF_8);
+        Writer salida = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 20);
+        long inicio = System.nanoTime();
+        long consultas;
+        try (entrada) {
+            consultas = new ConsultasPorLotes(tablaPalabras.instantanea(), formato).ejecutar(entrada, salida);
+        }
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println(consultas + " consultas en " + ms + " ms");
+    }
+
+    /**
+     * Ejecuta el modo "--flujo": cuenta las palabras de los archivos dados,
+     * como si fueran un solo texto, o de la entrada estándar si no hay
+     * ninguno o se pasa "-", con un tokenizador por procesador.
      * 
-     * Utiliza la clase LeerArchivo para procesar el archivo "sagradas.txt"
-     * y almacenar cada palabra única junto con su frecuencia de aparición.
+     * @param args argumentos de línea de comandos; args[0] es "--flujo"
+     * @throws IOException si falla la lectura de algún archivo
+     */
+    private static void procesarFlujo(String[] args) throws IOException {
+        List<InputStream> entradas = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            entradas.add(args[i].equals("-") ? System.in : Files.newInputStream(Path.of(args[i])));
+        }
+        if (entradas.isEmpty()) entradas.add(System.in);
+        int tokenizadores = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>();
+        long inicio = System.nanoTime();
+        try (BufferedReader entrada = new BufferedReader(new InputStreamReader(
+                new SequenceInputStream(Collections.enumeration(entradas)), StandardCharsets.UTF_8), 1 << 16)) {
+            LeerArchivo.procesarFlujo(entrada, tabla, tokenizadores);
+        }
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        tablaPalabras.publicar(tabla);
+        System.out.println("Flujo procesado en " + ms + " ms con " + tokenizadores + " tokenizadores. Palabras unicas: " + tabla.size());
+        totalnropalabras();
+    }
+
+  /**
+     * Carga la tabla de palabras con leerTabla() y muestra el total de palabras.
      * 
      * @throws Exception si ocurre un error durante la lectura o procesamiento del archivo
      */
     private static void cargarArchivo() throws Exception {
-        LeerArchivo.procesarArchivo("src/Txt/sagradas.txt", tablaPalabras);
-        System.out.println("Archivo procesado. Palabras unicas: " + tablaPalabras.size());
+        tablaPalabras.publicar(leerTabla());
         totalnropalabras();
     }
+
+    /**
+     * Lee la tabla de palabras, desde la instantánea o procesando el texto.
+     * 
+     * Si existe una instantánea binaria generada a partir del estado actual de
+     * "sagradas.txt", la mapea y la usa directamente sin procesar el texto.
+     * Si no existe o está desactualizada, utiliza la clase CorpusPorLibros para
+     * contar en paralelo las palabras de cada libro y sumarlas en una tabla con
+     * cada palabra única junto con su frecuencia, guarda una instantánea nueva para el siguiente arranque y
+     * se queda con una copia compacta de la tabla, que ocupa menos memoria
+     * mientras nadie la modifique. El servidor la usa también para /recargar.
+     * 
+     * @return la tabla leída, de solo lectura
+     * @throws IOException si ocurre un error durante la lectura o procesamiento del archivo
+     */
+    private static ConsultaFrecuencias<String> leerTabla() throws IOException {
+        Path origen = Path.of(ARCHIVO);
+        Path instantanea = Path.of(INSTANTANEA);
+        ConsultaFrecuencias<String> leida = InstantaneaFrecuencias.abrir(instantanea, origen);
+        if (leida != null) {
+            System.out.println("Instantanea cargada. Palabras unicas: " + leida.size());
+        } else {
+            System.out.println("Cargando y procesando archivo sagradas.txt...");
+            // Solo se conserva la copia compacta; frecuenciaPorLibro() vuelve a contar si se pide
+            TablaFrecuencias<String> tabla = CorpusPorLibros.construir(ARCHIVO).global();
+            System.out.println("Archivo procesado. Palabras unicas: " + tabla.size());
+            try {
+                InstantaneaFrecuencias.escribir(tabla, instantanea, origen);
+            } catch (IOException e) {
+                System.out.println("No se pudo guardar la instantanea: " + e.getMessage());
+            }
+            leida = new TablaFrecuenciasCompacta(tabla);
+        }
+        return leida;
+    }
+
+    /**
+     * Descarta los índices construidos sobre la versión vigente de la tabla.
+     * 
+     * Se llama antes de cada modificación: la tabla concurrente copia la
+     * versión vigente (la primera vez, de la instantánea o la tabla compacta
+     * a una TablaFrecuencias), aplica el cambio y publica la copia, y los
+     * índices se reconstruyen sobre ella cuando se vuelvan a pedir.
+     */
+    private static void descartarIndices() {
+        indicePrefijos = null;
+        indiceSubcadenas = null;
+        indiceDifuso = null;
+        indiceFrecuencias = null;
+    }
     /**
      * Muestra el menú principal y gestiona la interacción con el usuario.
      * 
-     * Presenta un menú con 20 opciones diferentes que permiten al usuario
-     * probar todas las funcionalidades de la tabla de símbolos ordenada:
-     * operaciones básicas, operaciones de orden, iteración y búsquedas especiales.
+     * Presenta un menú de opciones que permiten al usuario probar todas
+     * las funcionalidades de la tabla de símbolos ordenada: operaciones
+     * básicas, operaciones de orden, iteración y búsquedas especiales.
      */
     private static void mostrarMenu() {
         while (true) {
@@ -92,6 +276,14 @@ public class ProyectoBiblia {
             System.out.println("18. Buscar por substring");
             System.out.println("19. Buscar palabras que comiecen con");
             System.out.println("20. Salir");
+            System.out.println("21. Buscar versiculos (palabras, \"frase\", OR)");
+            System.out.println("22. Buscar palabras con comodines (? y *)");
+            System.out.println("23. Palabras mas y menos frecuentes");
+            System.out.println("24. Palabras por rango de frecuencia");
+            System.out.println("25. Metricas de rendimiento");
+            System.out.println("26. Comparar con otro archivo de texto");
+            System.out.println("27. Frases mas frecuentes (n-gramas)");
+            System.out.println("28. Frecuencia de una palabra por libro");
             System.out.print("Opcion: ");
             
             int opcion = scanner.nextInt();
@@ -121,6 +313,14 @@ public class ProyectoBiblia {
                     System.out.println("¡Hasta luego!");
                     return;
                 }
+                case 21 -> buscarVersiculos();
+                case 22 -> buscarConComodines();
+                case 23 -> masFrecuentes();
+                case 24 -> rangoFrecuencias();
+                case 25 -> System.out.print(Metricas.volcado());
+                case 26 -> compararConArchivo();
+                case 27 -> frasesFrecuentes();
+                case 28 -> frecuenciaPorLibro();
                 default -> System.out.println("Opcion invalida");
             }
         }
@@ -136,12 +336,30 @@ public class ProyectoBiblia {
         System.out.print("Palabra a buscar: ");
         String palabra = scanner.nextLine().toLowerCase().trim();
         
-        Integer frecuencia = tablaPalabras.get(palabra);
-        if (frecuencia != null) {
-            System.out.println("get(\"" + palabra + "\") = " + frecuencia + " veces");
+        if (tablaPalabras.contains(palabra)) {
+            System.out.println("get(\"" + palabra + "\") = " + tablaPalabras.get(palabra) + " veces");
         } else {
             System.out.println("get(\"" + palabra + "\") = null (no encontrada)");
+            sugerir(palabra);
+        }
+    }
+
+    /**
+     * Muestra las palabras del vocabulario parecidas a una que no se encontró.
+     * 
+     * Admite una letra de diferencia en palabras cortas y dos en las demás.
+     */
+    private static void sugerir(String palabra) {
+        int k = palabra.length() <= 4 ? 1 : 2;
+        List<IndiceDifuso.Sugerencia> sugerencias = indiceDifuso().buscar(palabra, k, 5);
+        if (sugerencias.isEmpty()) return;
+        StringBuilder sb = new StringBuilder("Quiso decir: ");
+        for (int i = 0; i < sugerencias.size(); i++) {
+            IndiceDifuso.Sugerencia s = sugerencias.get(i);
+            if (i > 0) sb.append(", ");
+            sb.append(s.palabra()).append(" (").append(s.frecuencia()).append(" veces)");
         }
+        System.out.println(sb);
     }
     
     /**
@@ -158,6 +376,7 @@ public class ProyectoBiblia {
         scanner.nextLine();
         
         System.out.println("Ejecutando: put(\"" + palabra + "\", " + frecuencia + ")");
+        descartarIndices();
         tablaPalabras.put(palabra, frecuencia);
         System.out.println("✓ Palabra agregada/modificada");
     }
@@ -174,6 +393,7 @@ public class ProyectoBiblia {
         
         if (tablaPalabras.contains(palabra)) {
             System.out.println("Ejecutando: delete(\"" + palabra + "\")");
+            descartarIndices();
             tablaPalabras.delete(palabra);
             System.out.println("✓ Palabra eliminada");
         } else {
@@ -259,6 +479,7 @@ public class ProyectoBiblia {
         if (tablaPalabras.isEmpty()) {
             System.out.println("deletemin() = null (tabla vacia)");
         } else {
+            descartarIndices();
             String eliminada = tablaPalabras.deletemin();
             System.out.println("deletemin() = \"" + eliminada + "\" (eliminada)");
             System.out.println("Nueva primera palabra: " + (tablaPalabras.isEmpty() ? "ninguna" : tablaPalabras.min()));
@@ -275,6 +496,7 @@ public class ProyectoBiblia {
         if (tablaPalabras.isEmpty()) {
             System.out.println("deletemax() = null (tabla vacia)");
         } else {
+            descartarIndices();
             String eliminada = tablaPalabras.deletemax();
             System.out.println("deletemax() = \"" + eliminada + "\" (eliminada)");
             System.out.println("Nueva ultima palabra: " + (tablaPalabras.isEmpty() ? "ninguna" : tablaPalabras.max()));
@@ -365,8 +587,10 @@ public class ProyectoBiblia {
     /**
      * Prueba la operación keys() para mostrar todas las palabras.
      * 
-     * Muestra todas las palabras de la tabla en orden alfabético.
-     * 
+     * Muestra todas las palabras de la tabla en orden alfabético. El cursor
+     * de la vista da la posición de cada palabra, con la que se lee su
+     * frecuencia sin volver a buscarla. Las líneas se arman en un solo
+     * buffer y se imprimen de una vez, con el total al final.
      */
     private static void Keys() {
         if (tablaPalabras.isEmpty()) {
@@ -374,13 +598,17 @@ public class ProyectoBiblia {
             return;
         }
         
-        System.out.println("keys() - Todas las palabras alfabeticamente:");
+        StringBuilder salida = new StringBuilder(1 << 16);
+        salida.append("keys() - Todas las palabras alfabeticamente:\n");
         int contador = 0;
-        for (String palabra : tablaPalabras.keys("a","{")) {
-            System.out.println((contador+1) + ". " + palabra + " (" + tablaPalabras.get(palabra) + " veces)");
+        Rango<String>.Cursor cursor = tablaPalabras.keys("a","{").cursor();
+        while (cursor.siguiente()) {
             contador++;
-            System.out.println("\nTotal mostrado: " + contador + " palabras");
+            salida.append(contador).append(". ").append(cursor.clave())
+                  .append(" (").append(tablaPalabras.frecuenciaEn(cursor.posicion())).append(" veces)\n");
         }
+        salida.append("\nTotal mostrado: ").append(contador).append(" palabras");
+        System.out.println(salida);
     }
     
      /**
@@ -401,12 +629,12 @@ public class ProyectoBiblia {
         String hi = scanner.nextLine().toLowerCase().trim();
         
         System.out.println("keys(\"" + lo + "\", \"" + hi + "\"):");
-        int contador = 0;
-        for (String palabra : tablaPalabras.keys(lo, hi)) {
-            System.out.println("- " + palabra + " (" + tablaPalabras.get(palabra) + " veces)");
-            contador++;
+        Rango<String> rango = tablaPalabras.keys(lo, hi);
+        Rango<String>.Cursor cursor = rango.cursor();
+        while (cursor.siguiente()) {
+            System.out.println("- " + cursor.clave() + " (" + tablaPalabras.frecuenciaEn(cursor.posicion()) + " veces)");
         }
-        System.out.println("Total en rango: " + contador + " palabras");
+        System.out.println("Total en rango: " + rango.size() + " palabras");
     }
     
     /**
@@ -436,34 +664,34 @@ public class ProyectoBiblia {
      * Implementa búsqueda por substring dentro de las palabras.
      * 
      * Permite al usuario buscar todas las palabras que contengan
-     * un texto específico como substring. 
+     * un texto específico como substring. En lugar de recorrer todo el
+     * vocabulario, el índice de subcadenas localiza directamente las
+     * palabras que la contienen.
      */
     private static void buscarPorSubstring() {
         System.out.print("Texto a buscar dentro de las palabras: ");
         String texto = scanner.nextLine().toLowerCase().trim();
         
         System.out.println("\nPalabras que contienen '" + texto + "':");
-        int contador = 0;
+        int[] posiciones = indiceSubcadenas().contienen(texto);
         
-        for (String palabra : tablaPalabras.keys("a","{")) {
-            if (palabra.contains(texto)) {
-                System.out.println(palabra + " (" + tablaPalabras.get(palabra) + " veces)");
-                contador++;
-            }
+        for (int i : posiciones) {
+            System.out.println(tablaPalabras.select(i) + " (" + tablaPalabras.frecuenciaEn(i) + " veces)");
         }
         
-        if (contador == 0) {
+        if (posiciones.length == 0) {
             System.out.println("No se encontraron palabras que contengan '" + texto + "'");
         } else {
-            System.out.println("\nTotal encontrado: " + contador + " palabras");
+            System.out.println("\nTotal encontrado: " + posiciones.length + " palabras");
         }
     }
     /**
      * Implementa búsqueda por prefijo de palabras.
      * 
      * Encuentra todas las palabras que comienzan con un prefijo específico
-     * utilizando las operaciones de rango de la tabla de símbolos.
-     * Utiliza una técnica que incrementa el último carácter para definir el rango.
+     * utilizando el índice de prefijos: el nodo del prefijo da directamente
+     * el rango de posiciones de esas palabras en la tabla, que se recorre
+     * con select(). Un prefijo vacío selecciona todas las palabras.
      */
     private static void buscarPorInicio(){    
             if (tablaPalabras.isEmpty()) {
@@ -472,65 +700,340 @@ public class ProyectoBiblia {
         }
         
         System.out.println("La palabra inicia con:");
-        String lo = scanner.nextLine().toLowerCase().trim();
-        char lastchar = (char)(lo.charAt(lo.length()-1)+1);
-        String hi = lo.substring(0,lo.length()-1 )+lastchar;
+        String prefijo = scanner.nextLine().toLowerCase().trim();
+        int[] rango = indicePrefijos().rangoPrefijo(prefijo);
         
-        System.out.println("keys(\"" + lo + "\", \"" + hi + "\"):");
-        int contador = 0;
-        for (String palabra : tablaPalabras.keys(lo, hi)) {
-            if (palabra.equals(hi)) break;
-            System.out.println("- " + palabra + " (" + tablaPalabras.get(palabra) + " veces)");
-            contador++;
+        System.out.println("Palabras con prefijo \"" + prefijo + "\":");
+        for (int i = rango[0]; i < rango[1]; i++) {
+            System.out.println("- " + tablaPalabras.select(i) + " (" + tablaPalabras.frecuenciaEn(i) + " veces)");
         }
         
-        System.out.println("Total en rango: " + contador + " palabras");
+        System.out.println("Total en rango: " + (rango[1] - rango[0]) + " palabras");
    }
     /**
-     * Calcula y muestra el total de palabras procesadas incluyendo repeticiones.
+     * Busca palabras que encajen con un patrón con comodines.
      * 
-     * Suma todas las frecuencias de todas las palabras para obtener
-     * el número total de palabras en el texto original.
+     * '?' representa exactamente una letra y '*' cualquier secuencia de letras,
+     * por ejemplo "gr*cia" o "?ios". El recorrido del índice de prefijos
+     * descarta toda rama que no pueda encajar con el patrón.
      */
-    private static void totalnropalabras(){ 
-        int contador = 0;
-        for (String palabra : tablaPalabras.keys("a", "{")){
-           
-           contador += tablaPalabras.get(palabra);  
-        }
+    private static void buscarConComodines() {
+        System.out.print("Patron (? = una letra, * = varias): ");
+        String patron = scanner.nextLine().toLowerCase().trim();
         
-        System.out.println("Total: " + contador + " palabras");        
+        int[] posiciones = indicePrefijos().coincidencias(patron);
+        for (int i : posiciones) {
+            System.out.println("- " + tablaPalabras.select(i) + " (" + tablaPalabras.frecuenciaEn(i) + " veces)");
+        }
+        System.out.println("Total encontrado: " + posiciones.length + " palabras");
     }
+
     /**
-     * Calcula y muestra el número de palabras que aparecen exactamente una vez.
+     * Retorna el índice de prefijos de la tabla, construyéndolo si hace falta.
      * 
-     * Cuenta las palabras únicas que tienen frecuencia igual a 1,
-     * útil para análisis de vocabulario y riqueza lexical.
+     * @return el índice de prefijos vigente
      */
-    private static void totalnrosinrepetir(){ 
-        int contador = 0;
-        for (String palabra : tablaPalabras.keys("a", "{")) {
-        if (tablaPalabras.get(palabra) == 1) {
-            contador++;
+    private static IndicePrefijos indicePrefijos() {
+        if (indicePrefijos == null) {
+            indicePrefijos = new IndicePrefijos(tablaPalabras.instantanea());
+        }
+        return indicePrefijos;
+    }
+
+    /**
+     * Retorna el índice difuso de la tabla, construyéndolo si hace falta.
+     * 
+     * @return el índice difuso vigente
+     */
+    private static IndiceDifuso indiceDifuso() {
+        if (indiceDifuso == null) {
+            indiceDifuso = new IndiceDifuso(tablaPalabras.instantanea(), indicePrefijos());
         }
+        return indiceDifuso;
     }
-    System.out.println("Total de palabras unicas que estan solo una vez: " + contador);
+
+    /**
+     * Retorna el índice de subcadenas de la tabla, construyéndolo si hace falta.
+     * 
+     * @return el índice de subcadenas vigente
+     */
+    private static IndiceSubcadenas indiceSubcadenas() {
+        if (indiceSubcadenas == null) {
+            indiceSubcadenas = new IndiceSubcadenas(tablaPalabras.instantanea());
+        }
+        return indiceSubcadenas;
+    }
+
+    /**
+     * Muestra las K palabras más frecuentes y las K menos frecuentes.
+     * 
+     * El índice por frecuencia las entrega en orden sin recorrer ni ordenar
+     * el vocabulario completo.
+     */
+    private static void masFrecuentes() {
+        System.out.print("Cantidad de palabras (K): ");
+        int k = scanner.nextInt();
+        scanner.nextLine();
         
+        System.out.println("Las " + k + " palabras mas frecuentes:");
+        mostrarFrecuencias(indiceFrecuencias().masFrecuentes(), k);
+        System.out.println("Las " + k + " palabras menos frecuentes:");
+        mostrarFrecuencias(indiceFrecuencias().menosFrecuentes(), k);
     }
-     /**
-     * Calcula y muestra el número de palabras que aparecen más de una vez.
+
+    /**
+     * Muestra las frases de n palabras más frecuentes del texto, todas o las
+     * que empiezan con una palabra dada.
+     */
+    private static void frasesFrecuentes() {
+        System.out.print("Palabras por frase (2 o 3): ");
+        int n = scanner.nextInt();
+        scanner.nextLine();
+        if (n < 2 || n > TablaNGramas.MAXIMO_N) {
+            System.out.println("Solo se cuentan frases de 2 o 3 palabras");
+            return;
+        }
+        System.out.print("Primera palabra (vacio para todas): ");
+        String palabra = LeerArchivo.limpiarPalabra(scanner.nextLine().trim());
+        System.out.print("Cantidad de frases (K): ");
+        int k = scanner.nextInt();
+        scanner.nextLine();
+        
+        if (tablasNGramas[n] == null) {
+            System.out.println("Contando frases de " + n + " palabras...");
+            try {
+                tablasNGramas[n] = LeerArchivo.contarNGramas(ARCHIVO, n);
+            } catch (IOException e) {
+                System.out.println("Error al leer el archivo: " + e.getMessage());
+                return;
+            }
+        }
+        TablaNGramas frases = tablasNGramas[n];
+        System.out.println("Frases distintas: " + frases.size() + " (" + frases.totalApariciones() + " en total)");
+        
+        int[] posiciones;
+        if (palabra.isEmpty()) {
+            posiciones = frases.masFrecuentes(k);
+        } else {
+            Rango<String> rango = frases.empiezanCon(palabra);
+            System.out.println(rango.size() + " frases empiezan con \"" + palabra + "\"");
+            posiciones = frases.masFrecuentes(rango.desde(), rango.hasta(), k);
+        }
+        for (int i = 0; i < posiciones.length; i++) {
+            System.out.println((i + 1) + ". " + frases.select(posiciones[i]) + " (" + frases.frecuenciaEn(posiciones[i]) + " veces)");
+        }
+    }
+
+    /**
+     * Muestra en qué libros aparece una palabra, de aquel donde más aparece
+     * al que menos, y en cuántos libros aparece.
+     */
+    private static void frecuenciaPorLibro() {
+        System.out.print("Palabra a buscar: ");
+        String palabra = LeerArchivo.limpiarPalabra(scanner.nextLine().trim());
+        System.out.print("Cantidad de libros (K): ");
+        int k = scanner.nextInt();
+        scanner.nextLine();
+        
+        if (corpusPorLibros == null) {
+            System.out.println("Contando las palabras de cada libro...");
+            try {
+                corpusPorLibros = CorpusPorLibros.construir(ARCHIVO);
+            } catch (IOException e) {
+                System.out.println("Error al leer el archivo: " + e.getMessage());
+                return;
+            }
+        }
+        int libros = corpusPorLibros.numeroLibros();
+        List<Integer> conPalabra = new ArrayList<>();
+        for (int i = 0; i < libros; i++) {
+            if (corpusPorLibros.frecuencia(i, palabra) > 0) conPalabra.add(i);
+        }
+        conPalabra.sort(Comparator.comparingInt((Integer i) -> corpusPorLibros.frecuencia(i, palabra)).reversed());
+        System.out.println("\"" + palabra + "\" aparece en " + conPalabra.size() + " de " + libros + " libros");
+        for (int i = 0; i < Math.min(k, conPalabra.size()); i++) {
+            int libro = conPalabra.get(i);
+            System.out.println((i + 1) + ". " + corpusPorLibros.libro(libro) + " (" + corpusPorLibros.frecuencia(libro, palabra) + " veces)");
+        }
+    }
+
+    /**
+     * Muestra las palabras cuya frecuencia está en un rango [min, max].
+     */
+    private static void rangoFrecuencias() {
+        System.out.print("Frecuencia minima: ");
+        int min = scanner.nextInt();
+        System.out.print("Frecuencia maxima: ");
+        int max = scanner.nextInt();
+        scanner.nextLine();
+        
+        System.out.println("Palabras que aparecen entre " + min + " y " + max + " veces:");
+        int total = mostrarFrecuencias(indiceFrecuencias().enRango(min, max), Integer.MAX_VALUE);
+        System.out.println("Total en rango: " + total + " palabras");
+    }
+
+    /**
+     * Procesa otro archivo de texto y lo compara con la tabla actual en una
+     * sola pasada: cuenta las palabras exclusivas de cada lado, muestra
+     * algunas de ellas y las palabras comunes con mayor diferencia de frecuencia.
      * 
-     * Cuenta las palabras únicas que tienen frecuencia mayor a 1,
-     * complementario al método totalnrosinrepetir().
+     * El otro archivo se cuenta con las mismas reglas que sagradas.txt: si
+     * tiene libros, solo las palabras de los versículos, sin títulos ni
+     * encabezados; si no los tiene, todo el texto.
      */
-    private static void totalrepetidos(){ 
+    private static void compararConArchivo() {
+        System.out.print("Archivo a comparar: ");
+        String archivo = scanner.nextLine().trim();
+        if (!Files.isRegularFile(Path.of(archivo))) {
+            System.out.println("No existe el archivo " + archivo);
+            return;
+        }
+        TablaFrecuencias<String> otra;
+        try {
+            CorpusPorLibros corpus = CorpusPorLibros.construir(archivo);
+            if (corpus.numeroLibros() > 0) {
+                otra = corpus.global();
+            } else {
+                otra = new TablaFrecuencias<>();
+                LeerArchivo.procesarArchivoParalelo(archivo, otra);
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+            return;
+        }
+        
+        final int EJEMPLOS = 10;
+        List<String> soloBiblia = new ArrayList<>();
+        List<String> soloOtro = new ArrayList<>();
+        record Diferencia(String palabra, int biblia, int otro) {
+            int valor() {
+                return Math.abs(biblia - otro);
+            }
+        }
+        // Montículo de mínimos por diferencia: conserva las EJEMPLOS mayores
+        PriorityQueue<Diferencia> diferencias = new PriorityQueue<>(Comparator.comparingInt(Diferencia::valor));
+        int[] conteo = new int[3];
+        long inicio = System.nanoTime();
+        MezclaTablas.comparar(tablaPalabras.instantanea(), otra, new MezclaTablas.Visitante<String>() {
+            @Override
+            public void soloEnPrimera(String clave, int frecuencia) {
+                if (conteo[0]++ < EJEMPLOS) soloBiblia.add(clave + " (" + frecuencia + ")");
+            }
+            @Override
+            public void soloEnSegunda(String clave, int frecuencia) {
+                if (conteo[1]++ < EJEMPLOS) soloOtro.add(clave + " (" + frecuencia + ")");
+            }
+            @Override
+            public void enAmbas(String clave, int primera, int segunda) {
+                conteo[2]++;
+                if (primera == segunda) return;
+                diferencias.add(new Diferencia(clave, primera, segunda));
+                if (diferencias.size() > EJEMPLOS) diferencias.poll();
+            }
+        });
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        
+        System.out.println("Solo en la Biblia: " + conteo[0] + " palabras, por ejemplo " + soloBiblia);
+        System.out.println("Solo en " + archivo + ": " + conteo[1] + " palabras, por ejemplo " + soloOtro);
+        System.out.println("En ambos: " + conteo[2] + " palabras. Mayores diferencias:");
+        List<Diferencia> mayores = new ArrayList<>(diferencias);
+        mayores.sort(Comparator.comparingInt(Diferencia::valor).reversed());
+        for (Diferencia d : mayores) {
+            System.out.println("  " + d.palabra() + ": " + d.biblia() + " vs " + d.otro());
+        }
+        System.out.println("Comparacion hecha en " + ms + " ms");
+    }
+
+    /**
+     * Imprime, numeradas, hasta limite palabras de un cursor del índice por frecuencia.
+     * 
+     * @return número de palabras impresas
+     */
+    private static int mostrarFrecuencias(IndiceFrecuencias<String>.Cursor cursor, int limite) {
         int contador = 0;
-        for (String palabra : tablaPalabras.keys("a", "{")) {
-        if (tablaPalabras.get(palabra) > 1) {
+        while (contador < limite && cursor.siguiente()) {
+            System.out.println((contador + 1) + ". " + cursor.clave() + " (" + cursor.frecuencia() + " veces)");
             contador++;
         }
+        return contador;
     }
-    System.out.println("Total de palabras unicas que estan repetidas: " + contador);
+
+    /**
+     * Retorna el índice por frecuencia de la tabla actual.
+     * 
+     * Se construye sobre la versión vigente la primera vez que se pide y
+     * se descarta cuando el menú modifica la tabla.
+     * 
+     * @return el índice por frecuencia vigente
+     */
+    private static IndiceFrecuencias<String> indiceFrecuencias() {
+        if (indiceFrecuencias == null) {
+            indiceFrecuencias = new IndiceFrecuencias<>(tablaPalabras.instantanea());
+        }
+        return indiceFrecuencias;
+    }
+
+    /**
+     * Busca versículos con el índice posicional.
+     * 
+     * La primera vez construye el índice recorriendo el texto; las consultas
+     * siguientes se resuelven solo con las listas de apariciones. Acepta
+     * palabras (todas deben aparecer), frases entre comillas y alternativas
+     * separadas por OR. Muestra hasta 50 referencias.
+     */
+    private static void buscarVersiculos() {
+        if (indiceVersiculos == null) {
+            System.out.println("Construyendo indice de versiculos...");
+            try {
+                indiceVersiculos = IndicePosicional.construir(ARCHIVO);
+            } catch (IOException e) {
+                System.out.println("Error al leer el archivo: " + e.getMessage());
+                return;
+            }
+            System.out.println("Indice listo: " + indiceVersiculos.versiculos() + " versiculos en "
+                    + indiceVersiculos.libros() + " libros");
+        }
+        System.out.print("Consulta: ");
+        String consulta = scanner.nextLine().trim();
+        
+        long inicio = System.nanoTime();
+        int[] versiculos = indiceVersiculos.consultar(consulta);
+        long micros = (System.nanoTime() - inicio) / 1000;
         
+        for (int i = 0; i < versiculos.length && i < 50; i++) {
+            System.out.println("- " + indiceVersiculos.referencia(versiculos[i]));
+        }
+        if (versiculos.length > 50) {
+            System.out.println("... y " + (versiculos.length - 50) + " mas");
+        }
+        System.out.println("Total: " + versiculos.length + " versiculos (" + micros + " us)");
+    }
+    /**
+     * Calcula y muestra el total de palabras procesadas incluyendo repeticiones.
+     * 
+     * Muestra la suma de las frecuencias de todas las palabras, es decir,
+     * el número total de palabras en el texto original. La tabla mantiene
+     * ese total al día en cada modificación, así que no hay que recorrerla.
+     */
+    private static void totalnropalabras(){ 
+        System.out.println("Total: " + tablaPalabras.totalApariciones() + " palabras");        
+    }
+    /**
+     * Muestra el número de palabras que aparecen exactamente una vez.
+     * 
+     * La tabla mantiene este conteo al día con cada modificación,
+     * útil para análisis de vocabulario y riqueza lexical.
+     */
+    private static void totalnrosinrepetir(){ 
+        System.out.println("Total de palabras unicas que estan solo una vez: " + tablaPalabras.hapax());
+    }
+     /**
+     * Muestra el número de palabras que aparecen más de una vez.
+     * 
+     * Complementario al método totalnrosinrepetir(); también se lee
+     * del agregado que mantiene la tabla.
+     */
+    private static void totalrepetidos(){ 
+        System.out.println("Total de palabras unicas que estan repetidas: " + tablaPalabras.repetidas());
     }
 }
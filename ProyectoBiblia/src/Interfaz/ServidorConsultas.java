@@ -0,0 +1,347 @@
+package Interfaz;
+
+import TablaOrdenada.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP que expone las consultas de la tabla de palabras como JSON.
+ *
+ * Usa el servidor HTTP incluido en el JDK y atiende cada petición en su propio
+ * hilo virtual, de modo que miles de consultas concurrentes no necesitan un
+ * hilo del sistema cada una.
+ *
+ * La tabla vive en una TablaFrecuenciasConcurrente. Cada petición toma al
+ * empezar el Estado vigente, que es una instantanea() de la tabla junto con
+ * los índices construidos sobre esa misma versión, y responde todo con él:
+ * nunca ve una mezcla de dos versiones ni espera un lock. POST /recargar
+ * vuelve a cargar el corpus con el cargador recibido, construye los índices
+ * de la versión nueva y recién entonces la publica; mientras tanto las demás
+ * peticiones siguen respondiendo con la versión anterior.
+ *
+ * Todas las rutas aceptan GET con parámetros en la URL:
+ * <pre>
+ *   /get?palabra=dios            /contains?palabra=dios
+ *   /rank?palabra=dios           /select?k=100
+ *   /floor?palabra=dios          /ceiling?palabra=dios
+ *   /keys?lo=a&amp;hi=ab&amp;limite=50   /prefijo?texto=gra
+ *   /substring?texto=cion        /top?k=10
+ *   /estadisticas
+ * </pre>
+ * y POST /recargar, que responde con el número de la versión nueva.
+ * Las rutas que retornan listas de palabras aceptan "limite" (por defecto
+ * 100) e informan el total aunque no lo muestren completo.
+ *
+ * @author cvaro
+ */
+public final class ServidorConsultas {
+
+    /** Puerto por defecto */
+    public static final int PUERTO = 8080;
+
+    /** Número de palabras que se retornan en una lista si no se indica un límite */
+    private static final int LIMITE = 100;
+
+    /**
+     * Una versión de la tabla con sus índices; nunca cambia después de construirse.
+     */
+    private static final class Estado {
+
+        /** Versión de la tabla que se consulta */
+        final TablaFrecuenciasConcurrente.Version<String> tabla;
+
+        /** Índice de prefijos de la versión */
+        final IndicePrefijos prefijos;
+
+        /** Índice de subcadenas de la versión */
+        final IndiceSubcadenas subcadenas;
+
+        /** Índice por frecuencia de la versión */
+        final IndiceFrecuencias<String> porFrecuencia;
+
+        Estado(TablaFrecuenciasConcurrente.Version<String> tabla) {
+            this.tabla = tabla;
+            this.prefijos = new IndicePrefijos(tabla);
+            this.subcadenas = new IndiceSubcadenas(tabla);
+            this.porFrecuencia = new IndiceFrecuencias<>(tabla);
+        }
+    }
+
+    /** Tabla consultada; solo recargar() publica versiones nuevas */
+    private final TablaFrecuenciasConcurrente<String> tabla;
+
+    /** Versión vigente con sus índices; cada petición lo lee una vez al empezar */
+    private volatile Estado estado;
+
+    /** Produce la tabla para /recargar, o null si el servidor no admite recargas */
+    private final Callable<? extends ConsultaFrecuencias<String>> cargador;
+
+    /** Servidor HTTP del JDK */
+    private final HttpServer servidor;
+
+    /** Ejecuta cada petición en un hilo virtual nuevo */
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Prepara el servidor sobre una tabla; los índices se construyen aquí,
+     * antes de aceptar peticiones.
+     *
+     * @param tabla tabla a consultar; no debe modificarse mientras el servidor está activo
+     * @param cargador produce la tabla nueva en cada POST /recargar; null si no se admiten recargas
+     * @param puerto puerto TCP en el que escuchar
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public ServidorConsultas(ConsultaFrecuencias<String> tabla, Callable<? extends ConsultaFrecuencias<String>> cargador,
+            int puerto) throws IOException {
+        this.tabla = new TablaFrecuenciasConcurrente<>(tabla);
+        this.estado = new Estado(this.tabla.instantanea());
+        this.cargador = cargador;
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        servidor.setExecutor(hilos);
+        servidor.createContext("/", this::atender);
+    }
+
+    /**
+     * Empieza a aceptar peticiones.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones, espera como máximo los segundos indicados
+     * a que terminen las que están en curso y libera el puerto.
+     *
+     * @param segundos tiempo máximo de espera
+     */
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        hilos.shutdown();
+    }
+
+    /**
+     * Reemplaza la tabla consultada sin detener las peticiones.
+     *
+     * Los índices de la tabla nueva se construyen antes de publicarla: hasta
+     * que este método termina, las peticiones siguen usando la versión
+     * anterior completa. Las recargas simultáneas se aplican de a una.
+     *
+     * @param nueva tabla a publicar; no debe modificarse después
+     * @return número de la versión publicada
+     */
+    public synchronized long recargar(ConsultaFrecuencias<String> nueva) {
+        tabla.publicar(nueva);
+        Estado siguiente = new Estado(tabla.instantanea());
+        estado = siguiente;
+        return siguiente.tabla.numero();
+    }
+
+    /**
+     * Retorna el puerto en el que escucha el servidor.
+     *
+     * @return número de puerto
+     */
+    public int puerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Atiende una petición: la dirige según su ruta y envía la respuesta JSON.
+     */
+    private void atender(HttpExchange intercambio) throws IOException {
+        int estado = 200;
+        String cuerpo;
+        try {
+            String ruta = intercambio.getRequestURI().getPath();
+            // Sin cargador, /recargar es una ruta desconocida más
+            boolean recarga = ruta.equals("/recargar") && cargador != null;
+            if (!intercambio.getRequestMethod().equals(recarga ? "POST" : "GET")) {
+                estado = 405;
+                cuerpo = error("metodo no permitido");
+            } else if (recarga) {
+                try {
+                    cuerpo = recargar();
+                } catch (Exception e) {
+                    estado = 500;
+                    cuerpo = error("no se pudo recargar la tabla: " + e.getMessage());
+                }
+            } else {
+                // Toda la respuesta sale de la misma versión aunque otra petición recargue mientras tanto
+                Estado e = this.estado;
+                Map<String, String> p = parametros(intercambio.getRequestURI().getRawQuery());
+                cuerpo = switch (ruta) {
+                    case "/get" -> get(e, palabra(p));
+                    case "/contains" -> contains(e, palabra(p));
+                    case "/rank" -> rank(e, palabra(p));
+                    case "/select" -> select(e, entero(p, "k", -1));
+                    case "/floor" -> vecina(e, "floor", palabra(p), e.tabla.floor(palabra(p)));
+                    case "/ceiling" -> vecina(e, "ceiling", palabra(p), e.tabla.ceiling(palabra(p)));
+                    case "/keys" -> keys(e, texto(p, "lo"), texto(p, "hi"), entero(p, "limite", LIMITE));
+                    case "/prefijo" -> prefijo(e, texto(p, "texto"), entero(p, "limite", LIMITE));
+                    case "/substring" -> substring(e, texto(p, "texto"), entero(p, "limite", LIMITE));
+                    case "/top" -> top(e, entero(p, "k", 10));
+                    case "/estadisticas" -> estadisticas(e);
+                    default -> null;
+                };
+                if (cuerpo == null) {
+                    estado = 404;
+                    cuerpo = error("ruta desconocida");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            estado = 400;
+            cuerpo = error(e.getMessage());
+        } catch (RuntimeException e) {
+            // Sin esto HttpServer cierra la conexión sin responder y el cliente no sabe qué pasó
+            estado = 500;
+            cuerpo = error("error interno: " + e);
+        }
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    /**
+     * Atiende POST /recargar: pide la tabla al cargador y la publica.
+     *
+     * @return la respuesta JSON con la versión publicada
+     * @throws Exception si el cargador falla; la versión vigente no cambia
+     */
+    private String recargar() throws Exception {
+        ConsultaFrecuencias<String> nueva = cargador.call();
+        long version = recargar(nueva);
+        return new Json().abrir().campo("version", version).campo("unicas", nueva.size()).cerrar();
+    }
+
+    private String get(Estado e, String palabra) {
+        return new Json().abrir().campo("palabra", palabra).campo("frecuencia", e.tabla.get(palabra)).cerrar();
+    }
+
+    private String contains(Estado e, String palabra) {
+        return new Json().abrir().campo("palabra", palabra).campo("existe", e.tabla.contains(palabra)).cerrar();
+    }
+
+    private String rank(Estado e, String palabra) {
+        return new Json().abrir().campo("palabra", palabra).campo("rank", e.tabla.rank(palabra)).cerrar();
+    }
+
+    private String select(Estado e, int k) {
+        if (k < 0 || k >= e.tabla.size())
+            throw new IllegalArgumentException("k debe estar entre 0 y " + (e.tabla.size() - 1));
+        return new Json().abrir().campo("k", k).campo("palabra", e.tabla.select(k)).campo("frecuencia", e.tabla.frecuenciaEn(k)).cerrar();
+    }
+
+    private String vecina(Estado e, String operacion, String palabra, String resultado) {
+        Json json = new Json().abrir().campo("palabra", palabra).campo(operacion, resultado);
+        if (resultado != null) json.campo("frecuencia", e.tabla.get(resultado));
+        return json.cerrar();
+    }
+
+    private String keys(Estado e, String lo, String hi, int limite) {
+        Rango<String> rango = e.tabla.keys(lo, hi);
+        return lista(e, rango.desde(), rango.hasta(), limite);
+    }
+
+    private String prefijo(Estado e, String texto, int limite) {
+        int[] rango = e.prefijos.rangoPrefijo(texto);
+        return lista(e, rango[0], rango[1], limite);
+    }
+
+    private String substring(Estado e, String texto, int limite) {
+        int[] posiciones = e.subcadenas.contienen(texto);
+        Json json = new Json().abrir().campo("total", posiciones.length).nombre("palabras").abrirLista();
+        for (int i = 0; i < posiciones.length && i < limite; i++) palabra(e, json, posiciones[i]);
+        return json.cerrarLista().cerrar();
+    }
+
+    private String top(Estado e, int k) {
+        Json json = new Json().abrir().nombre("palabras").abrirLista();
+        IndiceFrecuencias<String>.Cursor cursor = e.porFrecuencia.masFrecuentes();
+        for (int i = 0; i < k && cursor.siguiente(); i++)
+            json.abrir().campo("palabra", cursor.clave()).campo("frecuencia", cursor.frecuencia()).cerrarObjeto();
+        return json.cerrarLista().cerrar();
+    }
+
+    private String estadisticas(Estado e) {
+        return new Json().abrir()
+                .campo("version", e.tabla.numero())
+                .campo("unicas", e.tabla.size())
+                .campo("total", e.tabla.totalApariciones())
+                .campo("hapax", e.tabla.hapax())
+                .campo("repetidas", e.tabla.repetidas())
+                .campo("min", e.tabla.min())
+                .campo("max", e.tabla.max())
+                .cerrar();
+    }
+
+    /**
+     * Lista las palabras de las posiciones [desde, hasta), hasta un límite.
+     */
+    private String lista(Estado e, int desde, int hasta, int limite) {
+        Json json = new Json().abrir().campo("total", hasta - desde).nombre("palabras").abrirLista();
+        for (int i = desde; i < hasta && i - desde < limite; i++) palabra(e, json, i);
+        return json.cerrarLista().cerrar();
+    }
+
+    /**
+     * Agrega a una lista JSON la palabra de la posición k con su frecuencia.
+     */
+    private void palabra(Estado e, Json json, int k) {
+        json.abrir().campo("palabra", e.tabla.select(k)).campo("frecuencia", e.tabla.frecuenciaEn(k)).cerrarObjeto();
+    }
+
+    private static String error(String mensaje) {
+        return new Json().abrir().campo("error", mensaje).cerrar();
+    }
+
+    /**
+     * Separa los parámetros de una consulta URL ("a=1&amp;b=2").
+     */
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> p = new HashMap<>();
+        if (consulta == null) return p;
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            p.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return p;
+    }
+
+    /**
+     * Retorna un parámetro de texto normalizado como en el menú (minúsculas, sin espacios).
+     */
+    private static String texto(Map<String, String> p, String nombre) {
+        String valor = p.get(nombre);
+        if (valor == null) throw new IllegalArgumentException("falta el parametro " + nombre);
+        return valor.toLowerCase().trim();
+    }
+
+    private static String palabra(Map<String, String> p) {
+        return texto(p, "palabra");
+    }
+
+    private static int entero(Map<String, String> p, String nombre, int porDefecto) {
+        String valor = p.get(nombre);
+        if (valor == null) return porDefecto;
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("el parametro " + nombre + " debe ser un entero");
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package TablaOrdenada;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Árbol rojo-negro inclinado a la izquierda con el tamaño de cada subárbol.
+ *
+ * Es la implementación ARBOL de TablaDeSimbolosOrdenada. El árbol se
+ * mantiene balanceado (altura a lo sumo 2 lg N) con rotaciones y cambios de
+ * color locales, de modo que put(), delete(), deleteMin() y deleteMax()
+ * cuestan O(log N) sin desplazar ningún elemento. Cada nodo guarda el número
+ * de nodos de su subárbol, con lo que rank() y select() también son
+ * O(log N): se baja por el árbol sumando o restando los tamaños de los
+ * subárboles izquierdos.
+ *
+ * Los enlaces rojos solo cuelgan a la izquierda y nunca hay dos seguidos,
+ * así que cada nodo negro con su posible hijo rojo equivale a un nodo de
+ * un árbol 2-3 (Sedgewick y Wayne, Algorithms, 4.ª ed., sección 3.3).
+ *
+ * @param <Key> tipo de las claves
+ * @param <Value> tipo de los valores
+ * @author cvaro
+ */
+final class ArbolRojoNegro<Key extends Comparable<Key>, Value> {
+
+    private static final boolean ROJO = true;
+    private static final boolean NEGRO = false;
+
+    /**
+     * Nodo del árbol: un par clave-valor, sus hijos, el color del enlace que
+     * llega desde su padre y el número de nodos de su subárbol.
+     */
+    private static final class Nodo<Key, Value> {
+        Key clave;
+        Value valor;
+        Nodo<Key, Value> izquierdo, derecho;
+        boolean color;
+        int tamanio;
+
+        Nodo(Key clave, Value valor) {
+            this.clave = clave;
+            this.valor = valor;
+            this.color = ROJO;
+            this.tamanio = 1;
+        }
+    }
+
+    /** Raíz del árbol, o null si está vacío */
+    private Nodo<Key, Value> raiz;
+
+    private static boolean esRojo(Nodo<?, ?> x) {
+        return x != null && x.color == ROJO;
+    }
+
+    private static int tamanio(Nodo<?, ?> x) {
+        return x == null ? 0 : x.tamanio;
+    }
+
+    int size() {
+        return tamanio(raiz);
+    }
+
+    /**
+     * Retorna el nodo de una clave, o null si no está.
+     */
+    private Nodo<Key, Value> nodo(Key clave) {
+        Nodo<Key, Value> x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp < 0) x = x.izquierdo;
+            else if (cmp > 0) x = x.derecho;
+            else return x;
+        }
+        return null;
+    }
+
+    Value get(Key clave) {
+        Nodo<Key, Value> x = nodo(clave);
+        return x == null ? null : x.valor;
+    }
+
+    boolean contains(Key clave) {
+        return nodo(clave) != null;
+    }
+
+    void put(Key clave, Value valor) {
+        raiz = put(raiz, clave, valor);
+        raiz.color = NEGRO;
+    }
+
+    private Nodo<Key, Value> put(Nodo<Key, Value> h, Key clave, Value valor) {
+        if (h == null) return new Nodo<>(clave, valor);
+        int cmp = clave.compareTo(h.clave);
+        if (cmp < 0) h.izquierdo = put(h.izquierdo, clave, valor);
+        else if (cmp > 0) h.derecho = put(h.derecho, clave, valor);
+        else h.valor = valor;
+        return balancear(h);
+    }
+
+    /**
+     * Elimina la clave mínima.
+     *
+     * @throws NoSuchElementException si el árbol está vacío
+     */
+    Key deleteMin() {
+        if (raiz == null) throw new NoSuchElementException("el arbol esta vacio");
+        Key min = min();
+        if (!esRojo(raiz.izquierdo) && !esRojo(raiz.derecho)) raiz.color = ROJO;
+        raiz = deleteMin(raiz);
+        if (raiz != null) raiz.color = NEGRO;
+        return min;
+    }
+
+    private Nodo<Key, Value> deleteMin(Nodo<Key, Value> h) {
+        if (h.izquierdo == null) return null;
+        if (!esRojo(h.izquierdo) && !esRojo(h.izquierdo.izquierdo)) h = moverRojoIzquierda(h);
+        h.izquierdo = deleteMin(h.izquierdo);
+        return balancear(h);
+    }
+
+    /**
+     * Elimina la clave máxima.
+     *
+     * @throws NoSuchElementException si el árbol está vacío
+     */
+    Key deleteMax() {
+        if (raiz == null) throw new NoSuchElementException("el arbol esta vacio");
+        Key max = max();
+        if (!esRojo(raiz.izquierdo) && !esRojo(raiz.derecho)) raiz.color = ROJO;
+        raiz = deleteMax(raiz);
+        if (raiz != null) raiz.color = NEGRO;
+        return max;
+    }
+
+    private Nodo<Key, Value> deleteMax(Nodo<Key, Value> h) {
+        if (esRojo(h.izquierdo)) h = rotarDerecha(h);
+        if (h.derecho == null) return null;
+        if (!esRojo(h.derecho) && !esRojo(h.derecho.izquierdo)) h = moverRojoDerecha(h);
+        h.derecho = deleteMax(h.derecho);
+        return balancear(h);
+    }
+
+    /**
+     * Elimina una clave si está en el árbol.
+     */
+    void delete(Key clave) {
+        if (!contains(clave)) return;
+        if (!esRojo(raiz.izquierdo) && !esRojo(raiz.derecho)) raiz.color = ROJO;
+        raiz = delete(raiz, clave);
+        if (raiz != null) raiz.color = NEGRO;
+    }
+
+    private Nodo<Key, Value> delete(Nodo<Key, Value> h, Key clave) {
+        if (clave.compareTo(h.clave) < 0) {
+            if (!esRojo(h.izquierdo) && !esRojo(h.izquierdo.izquierdo)) h = moverRojoIzquierda(h);
+            h.izquierdo = delete(h.izquierdo, clave);
+        } else {
+            if (esRojo(h.izquierdo)) h = rotarDerecha(h);
+            if (clave.compareTo(h.clave) == 0 && h.derecho == null) return null;
+            if (!esRojo(h.derecho) && !esRojo(h.derecho.izquierdo)) h = moverRojoDerecha(h);
+            if (clave.compareTo(h.clave) == 0) {
+                // El nodo toma el par de su sucesor, que se quita del subárbol derecho
+                Nodo<Key, Value> sucesor = minimo(h.derecho);
+                h.clave = sucesor.clave;
+                h.valor = sucesor.valor;
+                h.derecho = deleteMin(h.derecho);
+            } else {
+                h.derecho = delete(h.derecho, clave);
+            }
+        }
+        return balancear(h);
+    }
+
+    private Nodo<Key, Value> rotarIzquierda(Nodo<Key, Value> h) {
+        Nodo<Key, Value> x = h.derecho;
+        h.derecho = x.izquierdo;
+        x.izquierdo = h;
+        x.color = h.color;
+        h.color = ROJO;
+        x.tamanio = h.tamanio;
+        h.tamanio = 1 + tamanio(h.izquierdo) + tamanio(h.derecho);
+        return x;
+    }
+
+    private Nodo<Key, Value> rotarDerecha(Nodo<Key, Value> h) {
+        Nodo<Key, Value> x = h.izquierdo;
+        h.izquierdo = x.derecho;
+        x.derecho = h;
+        x.color = h.color;
+        h.color = ROJO;
+        x.tamanio = h.tamanio;
+        h.tamanio = 1 + tamanio(h.izquierdo) + tamanio(h.derecho);
+        return x;
+    }
+
+    private static void invertirColores(Nodo<?, ?> h) {
+        h.color = !h.color;
+        h.izquierdo.color = !h.izquierdo.color;
+        h.derecho.color = !h.derecho.color;
+    }
+
+    /**
+     * Con h rojo y sus dos hijos negros, vuelve rojo a h.izquierdo o a uno de sus hijos.
+     */
+    private Nodo<Key, Value> moverRojoIzquierda(Nodo<Key, Value> h) {
+        invertirColores(h);
+        if (esRojo(h.derecho.izquierdo)) {
+            h.derecho = rotarDerecha(h.derecho);
+            h = rotarIzquierda(h);
+            invertirColores(h);
+        }
+        return h;
+    }
+
+    /**
+     * Con h rojo y sus dos hijos negros, vuelve rojo a h.derecho o a uno de sus hijos.
+     */
+    private Nodo<Key, Value> moverRojoDerecha(Nodo<Key, Value> h) {
+        invertirColores(h);
+        if (esRojo(h.izquierdo.izquierdo)) {
+            h = rotarDerecha(h);
+            invertirColores(h);
+        }
+        return h;
+    }
+
+    /**
+     * Restablece las invariantes en h al volver de la recursión y actualiza su tamaño.
+     */
+    private Nodo<Key, Value> balancear(Nodo<Key, Value> h) {
+        if (esRojo(h.derecho) && !esRojo(h.izquierdo)) h = rotarIzquierda(h);
+        if (esRojo(h.izquierdo) && esRojo(h.izquierdo.izquierdo)) h = rotarDerecha(h);
+        if (esRojo(h.izquierdo) && esRojo(h.derecho)) invertirColores(h);
+        h.tamanio = 1 + tamanio(h.izquierdo) + tamanio(h.derecho);
+        return h;
+    }
+
+    private static <Key, Value> Nodo<Key, Value> minimo(Nodo<Key, Value> x) {
+        while (x.izquierdo != null) x = x.izquierdo;
+        return x;
+    }
+
+    Key min() {
+        return raiz == null ? null : minimo(raiz).clave;
+    }
+
+    Key max() {
+        if (raiz == null) return null;
+        Nodo<Key, Value> x = raiz;
+        while (x.derecho != null) x = x.derecho;
+        return x.clave;
+    }
+
+    /**
+     * Retorna el número de claves menores que la dada.
+     */
+    int rank(Key clave) {
+        int r = 0;
+        Nodo<Key, Value> x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp < 0) {
+                x = x.izquierdo;
+            } else if (cmp > 0) {
+                r += 1 + tamanio(x.izquierdo);
+                x = x.derecho;
+            } else {
+                return r + tamanio(x.izquierdo);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna el nodo con k claves menores que él.
+     *
+     * @throws IndexOutOfBoundsException si k no está entre 0 y size() - 1
+     */
+    private Nodo<Key, Value> seleccionar(int k) {
+        if (k < 0 || k >= size()) throw new IndexOutOfBoundsException("posicion " + k + " fuera de la tabla");
+        Nodo<Key, Value> x = raiz;
+        while (true) {
+            int t = tamanio(x.izquierdo);
+            if (k < t) {
+                x = x.izquierdo;
+            } else if (k > t) {
+                k -= t + 1;
+                x = x.derecho;
+            } else {
+                return x;
+            }
+        }
+    }
+
+    Key select(int k) {
+        return seleccionar(k).clave;
+    }
+
+    Value valorEn(int k) {
+        return seleccionar(k).valor;
+    }
+
+    /**
+     * Retorna la mayor clave menor o igual que la dada, o null si no hay ninguna.
+     */
+    Key floor(Key clave) {
+        Key mejor = null;
+        Nodo<Key, Value> x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp == 0) return x.clave;
+            if (cmp < 0) {
+                x = x.izquierdo;
+            } else {
+                mejor = x.clave;
+                x = x.derecho;
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Retorna la menor clave mayor o igual que la dada, o null si no hay ninguna.
+     */
+    Key ceiling(Key clave) {
+        Key mejor = null;
+        Nodo<Key, Value> x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp == 0) return x.clave;
+            if (cmp > 0) {
+                x = x.derecho;
+            } else {
+                mejor = x.clave;
+                x = x.izquierdo;
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Vacía el árbol.
+     */
+    void vaciar() {
+        raiz = null;
+    }
+}
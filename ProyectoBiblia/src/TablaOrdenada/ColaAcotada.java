@@ -0,0 +1,123 @@
+package TablaOrdenada;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Cola FIFO de capacidad fija para pasar elementos entre hilos sin locks.
+ *
+ * A diferencia de Queue, no crea un nodo por elemento: los elementos viven
+ * en un arreglo circular reservado al construir la cola. offer() y poll()
+ * nunca esperan; si la cola está llena o vacía lo dicen y el llamador decide.
+ * encolar() y desencolar() sí esperan, primero girando y luego durmiendo
+ * intervalos cortos, de modo que un productor más rápido que sus consumidores
+ * queda frenado por la cola llena (contrapresión) en lugar de acumular
+ * elementos en memoria sin límite.
+ *
+ * No admite elementos null: poll() retorna null para indicar cola vacía.
+ *
+ * @param <Item> tipo de los elementos
+ * @author cvaro
+ * @see ColaCircular
+ * @see ColaCircularConcurrente
+ */
+public interface ColaAcotada<Item> {
+
+    /** Intentos girando con Thread.onSpinWait() antes de ceder el procesador */
+    int GIROS = 128;
+
+    /** Intentos cediendo el procesador antes de dormir */
+    int CESIONES = 256;
+
+    /** Tiempo que se duerme en cada intento después de girar y ceder */
+    long ESPERA_NANOS = 20_000;
+
+    /**
+     * Agrega un elemento al final de la cola si hay lugar.
+     *
+     * @param item elemento a agregar, distinto de null
+     * @return true si se agregó, false si la cola estaba llena
+     * @throws IllegalArgumentException si el elemento es null
+     */
+    boolean offer(Item item);
+
+    /**
+     * Quita el primer elemento de la cola, si hay alguno.
+     *
+     * @return el elemento, o null si la cola estaba vacía
+     */
+    Item poll();
+
+    /**
+     * Quita hasta max elementos de la cola y se los entrega en orden a un consumidor.
+     *
+     * @param consumidor recibe cada elemento quitado
+     * @param max número máximo de elementos a quitar
+     * @return número de elementos quitados
+     */
+    int drenar(Consumer<? super Item> consumidor, int max);
+
+    /**
+     * Retorna el número de elementos que caben en la cola.
+     *
+     * @return la capacidad, una potencia de 2
+     */
+    int capacidad();
+
+    /**
+     * Retorna el número de elementos en la cola.
+     *
+     * Con otros hilos usando la cola es solo una estimación: puede haber
+     * cambiado antes de que el llamador use el resultado.
+     *
+     * @return número aproximado de elementos
+     */
+    int size();
+
+    /**
+     * Verifica si la cola está vacía, con la misma salvedad que size().
+     *
+     * @return true si no hay elementos
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Agrega un elemento al final de la cola, esperando mientras esté llena.
+     *
+     * @param item elemento a agregar, distinto de null
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    default void encolar(Item item) throws InterruptedException {
+        for (int intento = 0; !offer(item); intento++) esperar(intento);
+    }
+
+    /**
+     * Quita el primer elemento de la cola, esperando mientras esté vacía.
+     *
+     * @return el elemento
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    default Item desencolar() throws InterruptedException {
+        Item item;
+        for (int intento = 0; (item = poll()) == null; intento++) esperar(intento);
+        return item;
+    }
+
+    /**
+     * Espera un poco antes de reintentar: gira, luego cede el procesador y luego duerme.
+     *
+     * Sirve para armar esperas propias sobre offer()/poll() que además
+     * revisen alguna otra condición entre intento e intento.
+     *
+     * @param intento número de intentos fallidos hasta ahora
+     * @throws InterruptedException si el hilo fue interrumpido
+     */
+    static void esperar(int intento) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (intento < GIROS) Thread.onSpinWait();
+        else if (intento < GIROS + CESIONES) Thread.yield();
+        else LockSupport.parkNanos(ESPERA_NANOS);
+    }
+}
@@ -0,0 +1,150 @@
+package TablaOrdenada;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+/**
+ * Cola circular acotada para un solo productor y un solo consumidor.
+ *
+ * El productor solo escribe el índice de escritura (cola) y el consumidor
+ * solo escribe el de lectura (cabeza); cada uno lee el del otro con
+ * semántica de adquisición y publica el suyo con semántica de liberación,
+ * así que no hace falta ningún lock ni ninguna operación compare-and-set.
+ * Los índices crecen sin volver a cero y la casilla de un índice es
+ * índice &amp; (capacidad - 1).
+ *
+ * Además cada lado guarda la última posición que vio del otro y solo la
+ * vuelve a leer cuando esa copia dice que la cola está llena (o vacía), de
+ * modo que en la mayoría de las operaciones no se toca la línea de caché
+ * que escribe el otro hilo. drenar() publica la cabeza una sola vez para
+ * todo el lote.
+ *
+ * Solo es correcta si a lo sumo un hilo llama a offer()/encolar() y a lo
+ * sumo otro hilo llama a poll()/desencolar()/drenar(); con varios
+ * productores o consumidores se debe usar ColaCircularConcurrente.
+ *
+ * @param <Item> tipo de los elementos
+ * @author cvaro
+ */
+public class ColaCircular<Item> implements ColaAcotada<Item> {
+
+    private static final VarHandle CABEZA;
+    private static final VarHandle COLA;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CABEZA = lookup.findVarHandle(ColaCircular.class, "cabeza", long.class);
+            COLA = lookup.findVarHandle(ColaCircular.class, "cola", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Casillas de la cola; null en las libres */
+    private final Object[] elementos;
+
+    /** capacidad - 1, para calcular la casilla de un índice */
+    private final int mascara;
+
+    /** Índice del próximo elemento a leer; solo lo escribe el consumidor */
+    private long cabeza;
+
+    /** Índice de la próxima casilla a escribir; solo lo escribe el productor */
+    private long cola;
+
+    /** Última cabeza vista por el productor */
+    private long cabezaVista;
+
+    /** Última cola vista por el consumidor */
+    private long colaVista;
+
+    /**
+     * Construye una cola vacía.
+     *
+     * @param capacidad número mínimo de elementos que debe admitir; se
+     *                  redondea a la siguiente potencia de 2
+     * @throws IllegalArgumentException si la capacidad no está entre 1 y 2^30
+     */
+    public ColaCircular(int capacidad) {
+        int n = potenciaDeDos(capacidad);
+        elementos = new Object[n];
+        mascara = n - 1;
+    }
+
+    /**
+     * Redondea una capacidad pedida a la siguiente potencia de 2.
+     *
+     * @throws IllegalArgumentException si la capacidad no está entre 1 y 2^30
+     */
+    static int potenciaDeDos(int capacidad) {
+        if (capacidad < 1 || capacidad > 1 << 30)
+            throw new IllegalArgumentException("capacidad fuera de rango: " + capacidad);
+        return capacidad == 1 ? 1 : Integer.highestOneBit(capacidad - 1) << 1;
+    }
+
+    @Override
+    public boolean offer(Item item) {
+        if (item == null) throw new IllegalArgumentException("la cola no admite null");
+        long c = cola;
+        if (c - cabezaVista == elementos.length) {
+            cabezaVista = (long) CABEZA.getAcquire(this);
+            if (c - cabezaVista == elementos.length) return false;
+        }
+        elementos[(int) c & mascara] = item;
+        COLA.setRelease(this, c + 1);
+        return true;
+    }
+
+    @Override
+    public Item poll() {
+        long h = cabeza;
+        if (h == colaVista) {
+            colaVista = (long) COLA.getAcquire(this);
+            if (h == colaVista) return null;
+        }
+        int i = (int) h & mascara;
+        Item item = (Item) elementos[i];
+        elementos[i] = null;
+        CABEZA.setRelease(this, h + 1);
+        return item;
+    }
+
+    /**
+     * Entrega el lote y publica la cabeza una sola vez al final, aunque el consumidor falle.
+     */
+    @Override
+    public int drenar(Consumer<? super Item> consumidor, int max) {
+        long h = cabeza;
+        if (h == colaVista) colaVista = (long) COLA.getAcquire(this);
+        int n = (int) Math.min(max, colaVista - h);
+        if (n <= 0) return 0;
+        int k = 0;
+        try {
+            while (k < n) {
+                int i = (int) (h + k) & mascara;
+                Item item = (Item) elementos[i];
+                elementos[i] = null;
+                k++;
+                consumidor.accept(item);
+            }
+        } finally {
+            // Si el consumidor falla, los elementos ya entregados no vuelven a la cola
+            CABEZA.setRelease(this, h + k);
+        }
+        return n;
+    }
+
+    @Override
+    public int capacidad() {
+        return elementos.length;
+    }
+
+    @Override
+    public int size() {
+        long h = (long) CABEZA.getAcquire(this);
+        long c = (long) COLA.getAcquire(this);
+        return (int) Math.max(0, Math.min(c - h, elementos.length));
+    }
+}
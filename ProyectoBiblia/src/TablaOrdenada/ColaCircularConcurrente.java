@@ -0,0 +1,127 @@
+package TablaOrdenada;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Cola circular acotada para varios productores y varios consumidores, sin locks.
+ *
+ * Sigue el esquema de D. Vyukov: cada casilla tiene un número de secuencia
+ * que dice de quién es el turno. Una casilla con secuencia igual al índice
+ * de escritura está libre para ese índice; con secuencia igual al índice
+ * más uno tiene un elemento listo para leer. Un productor reserva su índice
+ * con un compare-and-set sobre la cola, escribe el elemento y recién
+ * entonces publica la secuencia; un consumidor hace lo mismo sobre la
+ * cabeza y al terminar deja la secuencia en índice + capacidad, que es el
+ * turno del productor de la siguiente vuelta. Así cada casilla la toca un
+ * solo hilo a la vez y los hilos solo compiten en el compare-and-set de los
+ * índices, nunca esperando a que otro libere un lock.
+ *
+ * drenar() toma los elementos de a uno: con varios consumidores no se puede
+ * reservar un lote entero sin que otro consumidor quede esperando a que
+ * termine. Con un solo productor y un solo consumidor ColaCircular es más
+ * rápida.
+ *
+ * @param <Item> tipo de los elementos
+ * @author cvaro
+ */
+public class ColaCircularConcurrente<Item> implements ColaAcotada<Item> {
+
+    /** Casillas de la cola; null en las libres */
+    private final Object[] elementos;
+
+    /** Número de secuencia de cada casilla */
+    private final AtomicLongArray secuencias;
+
+    /** capacidad - 1, para calcular la casilla de un índice */
+    private final int mascara;
+
+    /** Índice del próximo elemento a leer */
+    private final AtomicLong cabeza = new AtomicLong();
+
+    /** Índice de la próxima casilla a escribir */
+    private final AtomicLong cola = new AtomicLong();
+
+    /**
+     * Construye una cola vacía.
+     *
+     * @param capacidad número mínimo de elementos que debe admitir; se
+     *                  redondea a la siguiente potencia de 2
+     * @throws IllegalArgumentException si la capacidad no está entre 1 y 2^30
+     */
+    public ColaCircularConcurrente(int capacidad) {
+        int n = ColaCircular.potenciaDeDos(capacidad);
+        elementos = new Object[n];
+        secuencias = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) secuencias.set(i, i);
+        mascara = n - 1;
+    }
+
+    @Override
+    public boolean offer(Item item) {
+        if (item == null) throw new IllegalArgumentException("la cola no admite null");
+        while (true) {
+            long c = cola.get();
+            int i = (int) c & mascara;
+            long diferencia = secuencias.getAcquire(i) - c;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(c, c + 1)) {
+                    elementos[i] = item;
+                    secuencias.setRelease(i, c + 1);
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                // La casilla todavía tiene el elemento de la vuelta anterior: cola llena
+                return false;
+            }
+            // diferencia > 0: otro productor ya tomó este índice; se reintenta con la cola nueva
+        }
+    }
+
+    @Override
+    public Item poll() {
+        while (true) {
+            long h = cabeza.get();
+            int i = (int) h & mascara;
+            long diferencia = secuencias.getAcquire(i) - (h + 1);
+            if (diferencia == 0) {
+                if (cabeza.compareAndSet(h, h + 1)) {
+                    Item item = (Item) elementos[i];
+                    elementos[i] = null;
+                    secuencias.setRelease(i, h + elementos.length);
+                    return item;
+                }
+            } else if (diferencia < 0) {
+                // Nadie escribió todavía en esta casilla: cola vacía
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Toma los elementos de a uno con poll(), así que otros consumidores pueden intercalarse en el lote.
+     */
+    @Override
+    public int drenar(Consumer<? super Item> consumidor, int max) {
+        int n = 0;
+        Item item;
+        while (n < max && (item = poll()) != null) {
+            n++;
+            consumidor.accept(item);
+        }
+        return n;
+    }
+
+    @Override
+    public int capacidad() {
+        return elementos.length;
+    }
+
+    @Override
+    public int size() {
+        long h = cabeza.get();
+        long c = cola.get();
+        return (int) Math.max(0, Math.min(c - h, elementos.length));
+    }
+}
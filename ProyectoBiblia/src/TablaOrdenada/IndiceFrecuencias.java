@@ -0,0 +1,321 @@
+package TablaOrdenada;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice secundario que ordena las claves de una tabla por frecuencia.
+ *
+ * Agrupa las claves en cubetas, una por cada frecuencia presente; las cubetas
+ * forman una lista doblemente enlazada en orden creciente de frecuencia y cada
+ * una guarda sus claves en otra lista doblemente enlazada. Un TreeMap de
+ * frecuencia a cubeta permite encontrar en O(log F) la primera cubeta de un
+ * rango (F = número de frecuencias distintas, mucho menor que N). Con esto:
+ * <ul>
+ *   <li>las K claves más (o menos) frecuentes se obtienen en O(K);</li>
+ *   <li>las claves con frecuencia en [min, max] se obtienen en O(log F + K);</li>
+ *   <li>sumar uno a la frecuencia de una clave, lo habitual al contar, mueve su
+ *       nodo a la cubeta vecina en O(1) si esta ya existe.</li>
+ * </ul>
+ *
+ * Dentro de una misma cubeta las claves quedan en el orden en que llegaron
+ * a esa frecuencia. Si se obtiene con TablaFrecuencias.indicePorFrecuencia(),
+ * la tabla lo mantiene sincronizado en cada modificación; si se construye a
+ * partir de una ConsultaFrecuencias, refleja la tabla en ese momento.
+ *
+ * @param <Key> tipo de las claves
+ * @author cvaro
+ */
+public final class IndiceFrecuencias<Key extends Comparable<Key>> {
+
+    /**
+     * Una clave dentro del índice.
+     */
+    static class Nodo<Key> {
+        final Key clave;
+        Cubeta<Key> cubeta;
+        Nodo<Key> anterior, siguiente;
+
+        Nodo(Key clave) {
+            this.clave = clave;
+        }
+    }
+
+    /**
+     * Las claves que comparten una misma frecuencia.
+     */
+    private static class Cubeta<Key> {
+        final int frecuencia;
+        Nodo<Key> primero, ultimo;
+        Cubeta<Key> menor, mayor;
+
+        Cubeta(int frecuencia) {
+            this.frecuencia = frecuencia;
+        }
+    }
+
+    /** Cubetas indexadas por frecuencia */
+    private final TreeMap<Integer, Cubeta<Key>> cubetas = new TreeMap<>();
+
+    /** Cubeta de menor frecuencia */
+    private Cubeta<Key> minima;
+
+    /** Cubeta de mayor frecuencia */
+    private Cubeta<Key> maxima;
+
+    /** Número de claves en el índice */
+    private int N;
+
+    /**
+     * Construye un índice vacío; lo usa TablaFrecuencias para mantenerlo sincronizado.
+     */
+    IndiceFrecuencias() {
+    }
+
+    /**
+     * Construye el índice con todas las claves de una tabla.
+     *
+     * @param tabla tabla cuyas claves se ordenan por frecuencia
+     */
+    public IndiceFrecuencias(ConsultaFrecuencias<Key> tabla) {
+        for (int i = 0; i < tabla.size(); i++) agregar(tabla.select(i), tabla.frecuenciaEn(i));
+    }
+
+    /**
+     * Retorna el número de claves del índice.
+     *
+     * @return número de claves
+     */
+    public int size() {
+        return N;
+    }
+
+    /**
+     * Retorna el número de frecuencias distintas.
+     *
+     * @return número de cubetas
+     */
+    public int frecuenciasDistintas() {
+        return cubetas.size();
+    }
+
+    /**
+     * Agrega una clave con su frecuencia.
+     *
+     * @return el nodo de la clave, para actualizarla o quitarla después
+     */
+    Nodo<Key> agregar(Key clave, int frecuencia) {
+        Nodo<Key> x = new Nodo<>(clave);
+        enlazar(x, cubeta(frecuencia, null));
+        N++;
+        return x;
+    }
+
+    /**
+     * Quita todas las claves del índice.
+     */
+    void vaciar() {
+        cubetas.clear();
+        minima = maxima = null;
+        N = 0;
+    }
+
+    /**
+     * Quita una clave del índice.
+     */
+    void quitar(Nodo<Key> x) {
+        desenlazar(x);
+        N--;
+    }
+
+    /**
+     * Cambia la frecuencia de una clave.
+     *
+     * Si la cubeta vecina ya tiene la nueva frecuencia se usa directamente,
+     * sin consultar el TreeMap.
+     */
+    void cambiar(Nodo<Key> x, int frecuencia) {
+        Cubeta<Key> actual = x.cubeta;
+        if (actual.frecuencia == frecuencia) return;
+        Cubeta<Key> vecina = frecuencia > actual.frecuencia ? actual.mayor : actual.menor;
+        Cubeta<Key> destino;
+        if (vecina != null && vecina.frecuencia == frecuencia) destino = vecina;
+        else destino = cubeta(frecuencia, actual);
+        desenlazar(x);
+        enlazar(x, destino);
+    }
+
+    /**
+     * Retorna la cubeta de una frecuencia, creándola si no existe.
+     *
+     * @param cerca una cubeta junto a la cual podría ir la nueva, o null
+     */
+    private Cubeta<Key> cubeta(int frecuencia, Cubeta<Key> cerca) {
+        Cubeta<Key> c = cubetas.get(frecuencia);
+        if (c != null) return c;
+        c = new Cubeta<>(frecuencia);
+        Cubeta<Key> menor;
+        if (cerca != null && cerca.frecuencia < frecuencia && (cerca.mayor == null || cerca.mayor.frecuencia > frecuencia))
+            menor = cerca;
+        else if (cerca != null && cerca.frecuencia > frecuencia && (cerca.menor == null || cerca.menor.frecuencia < frecuencia))
+            menor = cerca.menor;
+        else {
+            Map.Entry<Integer, Cubeta<Key>> e = cubetas.lowerEntry(frecuencia);
+            menor = e == null ? null : e.getValue();
+        }
+        Cubeta<Key> mayor = menor == null ? minima : menor.mayor;
+        c.menor = menor;
+        c.mayor = mayor;
+        if (menor == null) minima = c; else menor.mayor = c;
+        if (mayor == null) maxima = c; else mayor.menor = c;
+        cubetas.put(frecuencia, c);
+        return c;
+    }
+
+    /**
+     * Agrega un nodo al final de una cubeta.
+     */
+    private void enlazar(Nodo<Key> x, Cubeta<Key> c) {
+        x.cubeta = c;
+        x.siguiente = null;
+        x.anterior = c.ultimo;
+        if (c.ultimo == null) c.primero = x; else c.ultimo.siguiente = x;
+        c.ultimo = x;
+    }
+
+    /**
+     * Saca un nodo de su cubeta y elimina la cubeta si queda vacía.
+     */
+    private void desenlazar(Nodo<Key> x) {
+        Cubeta<Key> c = x.cubeta;
+        if (x.anterior == null) c.primero = x.siguiente; else x.anterior.siguiente = x.siguiente;
+        if (x.siguiente == null) c.ultimo = x.anterior; else x.siguiente.anterior = x.anterior;
+        x.anterior = x.siguiente = null;
+        x.cubeta = null;
+        if (c.primero == null) {
+            if (c.menor == null) minima = c.mayor; else c.menor.mayor = c.mayor;
+            if (c.mayor == null) maxima = c.menor; else c.mayor.menor = c.menor;
+            cubetas.remove(c.frecuencia);
+        }
+    }
+
+    /**
+     * Retorna un cursor que recorre las claves de mayor a menor frecuencia.
+     *
+     * @return cursor situado antes de la clave más frecuente
+     */
+    public Cursor masFrecuentes() {
+        return new Cursor(maxima, true, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Retorna un cursor que recorre las claves de menor a mayor frecuencia.
+     *
+     * @return cursor situado antes de la clave menos frecuente
+     */
+    public Cursor menosFrecuentes() {
+        return new Cursor(minima, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retorna un cursor sobre las claves con frecuencia en [min, max], de menor a mayor.
+     *
+     * @param min frecuencia mínima (inclusiva)
+     * @param max frecuencia máxima (inclusiva)
+     * @return cursor situado antes de la primera clave del rango
+     */
+    public Cursor enRango(int min, int max) {
+        Map.Entry<Integer, Cubeta<Key>> e = cubetas.ceilingEntry(min);
+        return new Cursor(e == null ? null : e.getValue(), false, max);
+    }
+
+    /**
+     * Retorna las K claves más frecuentes, de mayor a menor frecuencia.
+     *
+     * @param k número de claves deseadas
+     * @return hasta k claves
+     */
+    public List<Key> masFrecuentes(int k) {
+        return tomar(masFrecuentes(), k);
+    }
+
+    /**
+     * Retorna las K claves menos frecuentes, de menor a mayor frecuencia.
+     *
+     * @param k número de claves deseadas
+     * @return hasta k claves
+     */
+    public List<Key> menosFrecuentes(int k) {
+        return tomar(menosFrecuentes(), k);
+    }
+
+    private List<Key> tomar(Cursor cursor, int k) {
+        List<Key> resultado = new ArrayList<>(Math.max(0, Math.min(k, N)));
+        while (resultado.size() < k && cursor.siguiente()) resultado.add(cursor.clave());
+        return resultado;
+    }
+
+    /**
+     * Recorre las claves del índice cubeta por cubeta.
+     */
+    public class Cursor {
+
+        /** Cubeta actual */
+        private Cubeta<Key> cubeta;
+
+        /** Nodo actual, o null antes de empezar */
+        private Nodo<Key> nodo;
+
+        /** Si se recorren las cubetas de mayor a menor frecuencia */
+        private final boolean descendente;
+
+        /** Frecuencia en la que se detiene el recorrido (inclusiva) */
+        private final int limite;
+
+        private Cursor(Cubeta<Key> inicio, boolean descendente, int limite) {
+            this.cubeta = inicio;
+            this.descendente = descendente;
+            this.limite = limite;
+        }
+
+        /**
+         * Avanza a la siguiente clave.
+         *
+         * @return false si ya no quedan claves
+         */
+        public boolean siguiente() {
+            if (nodo != null && nodo.siguiente != null) {
+                nodo = nodo.siguiente;
+                return true;
+            }
+            if (nodo != null) cubeta = descendente ? cubeta.menor : cubeta.mayor;
+            nodo = null;
+            if (cubeta == null || (descendente ? cubeta.frecuencia < limite : cubeta.frecuencia > limite)) {
+                cubeta = null;
+                return false;
+            }
+            nodo = cubeta.primero;
+            return true;
+        }
+
+        /**
+         * Retorna la clave actual.
+         *
+         * @return la clave actual
+         */
+        public Key clave() {
+            return nodo.clave;
+        }
+
+        /**
+         * Retorna la frecuencia de la clave actual.
+         *
+         * @return frecuencia de la clave actual
+         */
+        public int frecuencia() {
+            return cubeta.frecuencia;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package TablaOrdenada;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Índice de prefijos (trie compacto) sobre las claves ordenadas de una tabla.
+ *
+ * Cada nodo del trie corresponde a un prefijo y guarda el rango [desde, hasta)
+ * de posiciones (rank) de las claves de la tabla que empiezan con él. Como las
+ * claves están ordenadas, las que comparten prefijo son contiguas, así que:
+ * <ul>
+ *   <li>contar las palabras con un prefijo cuesta O(|prefijo| log σ), sin recorrerlas;</li>
+ *   <li>enumerarlas es recorrer ese rango con select();</li>
+ *   <li>los patrones con comodines ('?' = un carácter, '*' = cualquier secuencia)
+ *       recorren el trie podando toda rama cuyo siguiente carácter no encaja.</li>
+ * </ul>
+ *
+ * Los nodos se guardan en arrays paralelos; los hijos de cada nodo son contiguos
+ * y están ordenados por carácter, lo que permite buscarlos con búsqueda binaria.
+ * El índice refleja la tabla en el momento de construirlo: si la tabla cambia,
+ * hay que construirlo de nuevo.
+ *
+ * @author cvaro
+ */
+public class IndicePrefijos {
+
+    /** Tabla cuyas claves se indexan */
+    private final ConsultaFrecuencias<String> tabla;
+
+    /** Carácter por el que se llega a cada nodo desde su padre */
+    private char[] etiqueta;
+
+    /** Índice del primer hijo de cada nodo */
+    private int[] primerHijo;
+
+    /** Número de hijos de cada nodo */
+    private int[] numHijos;
+
+    /** Primera posición (rank) de las claves con el prefijo del nodo */
+    private int[] desde;
+
+    /** Posición siguiente a la última clave con el prefijo del nodo */
+    private int[] hasta;
+
+    /** Nodos cuyo prefijo es, además, una clave completa de la tabla */
+    private final BitSet terminal = new BitSet();
+
+    /** Número de nodos */
+    private int nodos;
+
+    /**
+     * Construye el índice a partir de las claves de la tabla.
+     *
+     * Recorre los niveles del trie en anchura; en cada nivel agrupa las claves
+     * del rango de cada nodo por su siguiente carácter, de modo que el costo
+     * total es proporcional a la suma de las longitudes de las claves.
+     *
+     * @param tabla tabla cuyas claves se indexan
+     */
+    public IndicePrefijos(ConsultaFrecuencias<String> tabla) {
+        this.tabla = tabla;
+        int n = tabla.size();
+        String[] claves = new String[n];
+        for (int i = 0; i < n; i++) claves[i] = tabla.select(i);
+
+        int capacidad = Math.max(16, 2 * n);
+        etiqueta = new char[capacidad];
+        primerHijo = new int[capacidad];
+        numHijos = new int[capacidad];
+        desde = new int[capacidad];
+        hasta = new int[capacidad];
+        int[] profundidad = new int[capacidad];
+
+        desde[0] = 0;
+        hasta[0] = n;
+        nodos = 1;
+        for (int x = 0; x < nodos; x++) {
+            int d = profundidad[x];
+            int i = desde[x];
+            if (i < hasta[x] && claves[i].length() == d) {
+                terminal.set(x);
+                i++;
+            }
+            primerHijo[x] = nodos;
+            while (i < hasta[x]) {
+                char c = claves[i].charAt(d);
+                int j = i + 1;
+                while (j < hasta[x] && claves[j].charAt(d) == c) j++;
+                if (nodos == etiqueta.length) {
+                    int nueva = 2 * nodos;
+                    etiqueta = Arrays.copyOf(etiqueta, nueva);
+                    primerHijo = Arrays.copyOf(primerHijo, nueva);
+                    numHijos = Arrays.copyOf(numHijos, nueva);
+                    desde = Arrays.copyOf(desde, nueva);
+                    hasta = Arrays.copyOf(hasta, nueva);
+                    profundidad = Arrays.copyOf(profundidad, nueva);
+                }
+                etiqueta[nodos] = c;
+                desde[nodos] = i;
+                hasta[nodos] = j;
+                profundidad[nodos] = d + 1;
+                nodos++;
+                numHijos[x]++;
+                i = j;
+            }
+        }
+        etiqueta = Arrays.copyOf(etiqueta, nodos);
+        primerHijo = Arrays.copyOf(primerHijo, nodos);
+        numHijos = Arrays.copyOf(numHijos, nodos);
+        desde = Arrays.copyOf(desde, nodos);
+        hasta = Arrays.copyOf(hasta, nodos);
+    }
+
+    /**
+     * Busca el hijo de un nodo etiquetado con un carácter.
+     *
+     * @return índice del hijo, o -1 si no existe
+     */
+    private int hijo(int nodo, char c) {
+        int lo = primerHijo[nodo], hi = lo + numHijos[nodo] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (etiqueta[mid] < c) lo = mid + 1;
+            else if (etiqueta[mid] > c) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Busca el nodo que corresponde a un prefijo.
+     *
+     * @return índice del nodo, o -1 si ninguna clave tiene ese prefijo
+     */
+    private int nodo(String prefijo) {
+        int x = 0;
+        for (int i = 0; i < prefijo.length() && x >= 0; i++) x = hijo(x, prefijo.charAt(i));
+        return x;
+    }
+
+    /**
+     * Retorna el número de nodos del trie.
+     *
+     * @return número de prefijos distintos, incluido el vacío
+     */
+    public int nodos() {
+        return nodos;
+    }
+
+    /**
+     * Cuenta las claves que empiezan con un prefijo, sin recorrerlas.
+     *
+     * @param prefijo el prefijo (la cadena vacía cuenta todas las claves)
+     * @return número de claves con ese prefijo
+     */
+    public int contarPrefijo(String prefijo) {
+        int x = nodo(prefijo);
+        return x < 0 ? 0 : hasta[x] - desde[x];
+    }
+
+    /**
+     * Retorna el rango de posiciones de las claves que empiezan con un prefijo.
+     *
+     * Las claves son tabla.select(i) para desde ≤ i &lt; hasta.
+     *
+     * @param prefijo el prefijo
+     * @return un array {desde, hasta}; vacío (desde == hasta) si no hay ninguna
+     */
+    public int[] rangoPrefijo(String prefijo) {
+        int x = nodo(prefijo);
+        if (x < 0) return new int[] {0, 0};
+        return new int[] {desde[x], hasta[x]};
+    }
+
+    /**
+     * Retorna, en orden, las posiciones de las claves que encajan con un patrón.
+     *
+     * '?' encaja con exactamente un carácter y '*' con cualquier secuencia,
+     * incluso vacía. Los caracteres literales solo siguen al hijo con esa
+     * etiqueta, y cada par (nodo, posición en el patrón) se visita una sola
+     * vez, de modo que varios '*' no provocan una explosión de caminos.
+     *
+     * @param patron el patrón, por ejemplo "gr*cia" o "?ios"
+     * @return posiciones (rank) de las claves que encajan, en orden creciente
+     */
+    public int[] coincidencias(String patron) {
+        int m = patron.length();
+        BitSet visitados = new BitSet();
+        BitSet resultado = new BitSet(tabla.size());
+        int[] pilaNodo = new int[64];
+        int[] pilaPatron = new int[64];
+        int tope = 0;
+        pilaNodo[tope] = 0;
+        pilaPatron[tope] = 0;
+        tope++;
+        while (tope > 0) {
+            tope--;
+            int x = pilaNodo[tope], p = pilaPatron[tope];
+            long clave = (long) x * (m + 1) + p;
+            if (clave < Integer.MAX_VALUE) {
+                if (visitados.get((int) clave)) continue;
+                visitados.set((int) clave);
+            }
+            if (p == m) {
+                if (terminal.get(x)) resultado.set(desde[x]);
+                continue;
+            }
+            char c = patron.charAt(p);
+            if (tope + numHijos[x] + 1 > pilaNodo.length) {
+                int nueva = 2 * (tope + numHijos[x] + 1);
+                pilaNodo = Arrays.copyOf(pilaNodo, nueva);
+                pilaPatron = Arrays.copyOf(pilaPatron, nueva);
+            }
+            if (c == '*') {
+                pilaNodo[tope] = x; pilaPatron[tope] = p + 1; tope++;
+                for (int h = primerHijo[x]; h < primerHijo[x] + numHijos[x]; h++) {
+                    pilaNodo[tope] = h; pilaPatron[tope] = p; tope++;
+                }
+            } else if (c == '?') {
+                for (int h = primerHijo[x]; h < primerHijo[x] + numHijos[x]; h++) {
+                    pilaNodo[tope] = h; pilaPatron[tope] = p + 1; tope++;
+                }
+            } else {
+                int h = hijo(x, c);
+                if (h >= 0) {
+                    pilaNodo[tope] = h; pilaPatron[tope] = p + 1; tope++;
+                }
+            }
+        }
+        return resultado.stream().toArray();
+    }
+
+    /**
+     * Retorna, en orden, las posiciones de las claves a distancia de
+     * Levenshtein a lo sumo k de una palabra.
+     *
+     * Recorre el trie en profundidad llevando, para el prefijo de cada nodo,
+     * la fila de la tabla de programación dinámica contra la palabra: la fila
+     * de un hijo se calcula a partir de la de su padre con |palabra| + 1
+     * celdas, y es el estado de un autómata de Levenshtein para ese prefijo.
+     * Solo se calculan las celdas de la banda |j - profundidad| &lt;= k, es
+     * decir a lo sumo 2k + 1 por nodo: las de afuera valen más que k y se
+     * toman como k + 1. Si todas las celdas de la fila superan k, ninguna
+     * clave que empiece con ese prefijo puede quedar a distancia k o menos y
+     * la rama se abandona entera. Así solo se visitan los prefijos que están
+     * cerca de algún prefijo de la palabra, y los prefijos comunes se
+     * calculan una sola vez.
+     *
+     * @param palabra la palabra buscada
+     * @param k distancia máxima, al menos 0
+     * @return posiciones (rank) de las claves encontradas, en orden creciente
+     */
+    public int[] cercanas(String palabra, int k) {
+        if (k < 0) throw new IllegalArgumentException("k no puede ser negativo");
+        int m = palabra.length();
+        BitSet resultado = new BitSet(tabla.size());
+        // filas[d] es la fila del último nodo visitado a profundidad d; en un
+        // recorrido en profundidad la del padre sigue intacta al visitar cada hijo
+        int[][] filas = new int[m + k + 2][m + 1];
+        for (int j = 0; j <= m; j++) filas[0][j] = j;
+        if (terminal.get(0) && m <= k) resultado.set(desde[0]);
+        int[] pilaNodo = new int[64];
+        int[] pilaProfundidad = new int[64];
+        int tope = 0;
+        for (int h = primerHijo[0]; h < primerHijo[0] + numHijos[0]; h++) {
+            if (tope == pilaNodo.length) {
+                pilaNodo = Arrays.copyOf(pilaNodo, 2 * tope);
+                pilaProfundidad = Arrays.copyOf(pilaProfundidad, 2 * tope);
+            }
+            pilaNodo[tope] = h;
+            pilaProfundidad[tope] = 1;
+            tope++;
+        }
+        while (tope > 0) {
+            tope--;
+            int x = pilaNodo[tope], d = pilaProfundidad[tope];
+            int[] anterior = filas[d - 1], fila = filas[d];
+            char c = etiqueta[x];
+            int lo = Math.max(1, d - k), hi = Math.min(m, d + k);
+            fila[0] = d;
+            if (lo > 1) fila[lo - 1] = k + 1;
+            int minimo = d <= k ? d : k + 1;
+            for (int j = lo; j <= hi; j++) {
+                int costo = palabra.charAt(j - 1) == c ? 0 : 1;
+                // anterior[d - 1 + k + 1] quedó fuera de la banda del padre
+                int arriba = j <= d - 1 + k ? anterior[j] : k + 1;
+                int v = Math.min(Math.min(fila[j - 1] + 1, arriba + 1), anterior[j - 1] + costo);
+                fila[j] = v;
+                if (v < minimo) minimo = v;
+            }
+            if (hi < m) fila[m] = k + 1;
+            if (minimo > k) continue;
+            if (terminal.get(x) && fila[m] <= k) resultado.set(desde[x]);
+            // Con minimo <= k la profundidad no pasa de m + k, así que filas alcanza
+            if (tope + numHijos[x] > pilaNodo.length) {
+                int nueva = 2 * (tope + numHijos[x]);
+                pilaNodo = Arrays.copyOf(pilaNodo, nueva);
+                pilaProfundidad = Arrays.copyOf(pilaProfundidad, nueva);
+            }
+            for (int h = primerHijo[x]; h < primerHijo[x] + numHijos[x]; h++) {
+                pilaNodo[tope] = h;
+                pilaProfundidad[tope] = d + 1;
+                tope++;
+            }
+        }
+        return resultado.stream().toArray();
+    }
+}
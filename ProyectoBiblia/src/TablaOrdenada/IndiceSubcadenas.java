@@ -0,0 +1,181 @@
+package TablaOrdenada;
+
+import java.util.Arrays;
+
+/**
+ * Índice de subcadenas del vocabulario basado en un arreglo de sufijos.
+ *
+ * Concatena todas las claves de la tabla, separadas por un carácter menor que
+ * cualquier letra, y ordena todos sus sufijos. Los sufijos que empiezan con una
+ * subcadena dada forman un bloque contiguo del arreglo, que se localiza con dos
+ * búsquedas binarias; cada sufijo del bloque identifica una palabra que contiene
+ * la subcadena. Así una consulta cuesta O(|s| log L) más un término proporcional
+ * al número de apariciones, en lugar de recorrer todo el vocabulario.
+ *
+ * Los sufijos se ordenan con un quicksort de tres vías por caracteres (radix
+ * quicksort), que no vuelve a comparar los prefijos comunes ya resueltos.
+ * El índice refleja la tabla en el momento de construirlo y no cambia
+ * después, por lo que varios hilos pueden consultarlo a la vez.
+ *
+ * @author cvaro
+ */
+public class IndiceSubcadenas {
+
+    /** Separador entre claves en el texto concatenado; ninguna clave lo contiene */
+    private static final char SEPARADOR = '\0';
+
+    /** Para listas cortas se usa inserción en lugar de partición */
+    private static final int CORTE_INSERCION = 15;
+
+    /** Tabla cuyas claves se indexan */
+    private final ConsultaFrecuencias<String> tabla;
+
+    /** Claves concatenadas, cada una seguida de SEPARADOR */
+    private final char[] texto;
+
+    /** Posición (rank) de la clave a la que pertenece cada carácter del texto */
+    private final int[] palabraDe;
+
+    /** Posiciones de inicio de los sufijos, en orden lexicográfico */
+    private final int[] sufijos;
+
+    /**
+     * Construye el índice a partir de las claves de la tabla.
+     *
+     * @param tabla tabla cuyas claves se indexan
+     */
+    public IndiceSubcadenas(ConsultaFrecuencias<String> tabla) {
+        this.tabla = tabla;
+        int n = tabla.size();
+        StringBuilder concatenado = new StringBuilder();
+        for (int i = 0; i < n; i++) concatenado.append(tabla.select(i)).append(SEPARADOR);
+        texto = concatenado.toString().toCharArray();
+        palabraDe = new int[texto.length];
+        int total = 0;
+        for (int i = 0, palabra = 0; i < texto.length; i++) {
+            palabraDe[i] = palabra;
+            if (texto[i] == SEPARADOR) palabra++;
+            else total++;
+        }
+        sufijos = new int[total];
+        for (int i = 0, k = 0; i < texto.length; i++)
+            if (texto[i] != SEPARADOR) sufijos[k++] = i;
+        ordenar(0, total - 1, 0);
+    }
+
+    /**
+     * Carácter d del sufijo que empieza en s, o -1 si el sufijo ya terminó.
+     */
+    private int caracter(int s, int d) {
+        char c = texto[s + d];
+        return c == SEPARADOR ? -1 : c;
+    }
+
+    /**
+     * Ordena sufijos[lo..hi], que comparten sus primeros d caracteres.
+     */
+    private void ordenar(int lo, int hi, int d) {
+        while (hi > lo) {
+            if (hi - lo < CORTE_INSERCION) {
+                insercion(lo, hi, d);
+                return;
+            }
+            // Las claves ya vienen ordenadas: se pivota con el elemento central
+            // para no caer en el peor caso con los sufijos iniciales.
+            intercambiar(lo, (lo + hi) >>> 1);
+            int lt = lo, gt = hi;
+            int v = caracter(sufijos[lo], d);
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = caracter(sufijos[i], d);
+                if (t < v) intercambiar(lt++, i++);
+                else if (t > v) intercambiar(i, gt--);
+                else i++;
+            }
+            ordenar(lo, lt - 1, d);
+            if (v >= 0) ordenar(lt, gt, d + 1);
+            lo = gt + 1;
+        }
+    }
+
+    /**
+     * Ordenamiento por inserción de sufijos[lo..hi] a partir del carácter d.
+     */
+    private void insercion(int lo, int hi, int d) {
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && menor(sufijos[j], sufijos[j - 1], d); j--)
+                intercambiar(j, j - 1);
+    }
+
+    /**
+     * Compara dos sufijos a partir del carácter d.
+     */
+    private boolean menor(int a, int b, int d) {
+        while (true) {
+            int ca = caracter(a, d), cb = caracter(b, d);
+            if (ca != cb) return ca < cb;
+            if (ca < 0) return false;
+            d++;
+        }
+    }
+
+    private void intercambiar(int i, int j) {
+        int t = sufijos[i];
+        sufijos[i] = sufijos[j];
+        sufijos[j] = t;
+    }
+
+    /**
+     * Compara el sufijo que empieza en s con la subcadena buscada, solo hasta su longitud.
+     *
+     * @return negativo, cero o positivo si el sufijo es menor, empieza con la subcadena o es mayor
+     */
+    private int comparar(int s, String subcadena) {
+        for (int d = 0; d < subcadena.length(); d++) {
+            int c = caracter(s, d);
+            if (c < 0) return -1;
+            if (c != subcadena.charAt(d)) return c - subcadena.charAt(d);
+        }
+        return 0;
+    }
+
+    /**
+     * Primer índice de sufijos cuyo sufijo no es menor que la subcadena
+     * (o que la supera estrictamente, si estricto es true).
+     */
+    private int limite(String subcadena, boolean estricto) {
+        int lo = 0, hi = sufijos.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparar(sufijos[mid], subcadena);
+            if (cmp < 0 || (estricto && cmp == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Retorna las posiciones (rank) de las claves que contienen una subcadena.
+     *
+     * @param subcadena texto buscado; la cadena vacía selecciona todas las claves
+     * @return posiciones de las claves que la contienen, en orden creciente
+     */
+    public int[] contienen(String subcadena) {
+        if (subcadena.isEmpty()) {
+            int[] todas = new int[tabla.size()];
+            for (int i = 0; i < todas.length; i++) todas[i] = i;
+            return todas;
+        }
+        int desde = limite(subcadena, false);
+        int hasta = limite(subcadena, true);
+        int[] resultado = new int[hasta - desde];
+        for (int i = desde; i < hasta; i++) resultado[i - desde] = palabraDe[sufijos[i]];
+        // Una palabra aparece una vez por cada aparición de la subcadena:
+        // al ordenar quedan juntas y se descartan las repetidas.
+        Arrays.sort(resultado);
+        int n = 0;
+        for (int i = 0; i < resultado.length; i++)
+            if (n == 0 || resultado[n - 1] != resultado[i]) resultado[n++] = resultado[i];
+        return Arrays.copyOf(resultado, n);
+    }
+}
@@ -0,0 +1,360 @@
+package TablaOrdenada;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * Instantánea binaria de una tabla de frecuencias, consultada directamente desde disco.
+ *
+ * El archivo tiene el formato (enteros big-endian):
+ * <pre>
+ *   int   MAGICO, int VERSION
+ *   long  tamaño del archivo de origen, long fecha de modificación del origen
+ *   int   N, int bytes de claves
+ *   long  total de apariciones, int claves con frecuencia 1, int claves repetidas
+ *   int[N + 1]  desplazamiento de cada clave en el bloque de claves
+ *   int[N]      frecuencia de cada clave
+ *   byte[...]   claves en UTF-8, ordenadas y una tras otra
+ * </pre>
+ *
+ * Al abrirla se mapea el archivo en memoria y get(), rank(), select(),
+ * keys(lo, hi)... se responden leyendo el buffer mapeado: no se crea ningún
+ * objeto por clave, y solo se construye un String cuando el llamador pide
+ * una clave. Abrirla cuesta lo mismo sea cual sea el tamaño del corpus.
+ *
+ * El tamaño y la fecha del archivo de origen permiten detectar si la
+ * instantánea quedó desactualizada; en ese caso abrir() retorna null y
+ * hay que volver a procesar el texto.
+ *
+ * Los agregados del corpus se guardan en la cabecera, así que se leen en
+ * O(1) sin recorrer las frecuencias. El histograma completo no se guarda:
+ * se arma la primera vez que se consulta una frecuencia distinta de 1.
+ *
+ * @author cvaro
+ */
+public class InstantaneaFrecuencias implements ConsultaFrecuencias<String> {
+
+    /** Identifica el formato del archivo ("BIBL") */
+    private static final int MAGICO = 0x4249424C;
+
+    /** Versión del formato */
+    private static final int VERSION = 3;
+
+    /** Tamaño en bytes de la cabecera */
+    private static final int CABECERA = 4 + 4 + 8 + 8 + 4 + 4 + 8 + 4 + 4;
+
+    /** Archivo mapeado */
+    private final MappedByteBuffer datos;
+
+    /** Número de claves */
+    private final int N;
+
+    /** Posición del array de desplazamientos */
+    private final int inicioOffsets;
+
+    /** Posición del array de frecuencias */
+    private final int inicioFrecuencias;
+
+    /** Posición del bloque de claves */
+    private final int inicioClaves;
+
+    /** Número de claves por frecuencia, armado la primera vez que se consulta */
+    private volatile HashMap<Integer, Integer> histograma;
+
+    private InstantaneaFrecuencias(MappedByteBuffer datos) {
+        this.datos = datos;
+        this.N = datos.getInt(24);
+        this.inicioOffsets = CABECERA;
+        this.inicioFrecuencias = inicioOffsets + 4 * (N + 1);
+        this.inicioClaves = inicioFrecuencias + 4 * N;
+    }
+
+    /**
+     * Guarda una tabla de frecuencias en una instantánea binaria.
+     *
+     * Escribe primero en un archivo temporal y lo renombra al terminar,
+     * para que nunca quede a la vista una instantánea a medio escribir.
+     *
+     * @param tabla la tabla a guardar
+     * @param destino archivo de la instantánea
+     * @param origen archivo de texto del que proviene la tabla
+     * @throws IOException si no se puede escribir
+     */
+    public static void escribir(ConsultaFrecuencias<String> tabla, Path destino, Path origen) throws IOException {
+        int n = tabla.size();
+        byte[][] claves = new byte[n][];
+        int bytesClaves = 0;
+        for (int i = 0; i < n; i++) {
+            claves[i] = tabla.select(i).getBytes(StandardCharsets.UTF_8);
+            bytesClaves += claves[i].length;
+        }
+        if (destino.getParent() != null) Files.createDirectories(destino.getParent());
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(Files.size(origen));
+            salida.writeLong(Files.getLastModifiedTime(origen).toMillis());
+            salida.writeInt(n);
+            salida.writeInt(bytesClaves);
+            salida.writeLong(tabla.totalApariciones());
+            salida.writeInt(tabla.hapax());
+            salida.writeInt(tabla.repetidas());
+            int offset = 0;
+            for (int i = 0; i < n; i++) {
+                salida.writeInt(offset);
+                offset += claves[i].length;
+            }
+            salida.writeInt(offset);
+            for (int i = 0; i < n; i++) salida.writeInt(tabla.frecuenciaEn(i));
+            for (int i = 0; i < n; i++) salida.write(claves[i]);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Abre una instantánea si existe y corresponde al estado actual del origen.
+     *
+     * @param instantanea archivo de la instantánea
+     * @param origen archivo de texto del que se generó
+     * @return la instantánea mapeada, o null si no existe, es de otro formato o está desactualizada
+     * @throws IOException si ocurre un error al leer los archivos
+     */
+    public static InstantaneaFrecuencias abrir(Path instantanea, Path origen) throws IOException {
+        if (!Files.isRegularFile(instantanea) || !Files.isRegularFile(origen)) return null;
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try (FileChannel canal = FileChannel.open(instantanea, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio < CABECERA || tamanio > Integer.MAX_VALUE) return null;
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+            if (datos.getInt(0) != MAGICO || datos.getInt(4) != VERSION) return null;
+            if (datos.getLong(8) != Files.size(origen)) return null;
+            if (datos.getLong(16) != Files.getLastModifiedTime(origen).toMillis()) return null;
+            long esperado = (long) CABECERA + 4L * (2L * datos.getInt(24) + 1) + datos.getInt(28);
+            if (esperado != tamanio) return null;
+            InstantaneaFrecuencias abierta = new InstantaneaFrecuencias(datos);
+            if (Metricas.ACTIVAS) Metricas.instantanea(tamanio, abierta.totalApariciones(), System.nanoTime() - inicio);
+            return abierta;
+        }
+    }
+
+    /**
+     * Posición absoluta en el buffer de la clave k.
+     */
+    private int inicioClave(int k) {
+        return inicioClaves + datos.getInt(inicioOffsets + 4 * k);
+    }
+
+    /**
+     * Longitud en bytes de la clave k.
+     */
+    private int longitudClave(int k) {
+        return datos.getInt(inicioOffsets + 4 * (k + 1)) - datos.getInt(inicioOffsets + 4 * k);
+    }
+
+    /**
+     * Compara una clave con la clave k de la instantánea, con el mismo orden que String.compareTo.
+     *
+     * Las claves normalizadas son ASCII y se comparan byte a byte sin crear objetos;
+     * si aparece un byte no ASCII se decodifica la clave y se compara como String.
+     */
+    private int comparar(String key, int k) {
+        int inicio = inicioClave(k);
+        int longitud = longitudClave(k);
+        int n = Math.min(key.length(), longitud);
+        for (int i = 0; i < n; i++) {
+            byte b = datos.get(inicio + i);
+            if (b < 0) return key.compareTo(select(k));
+            int cmp = key.charAt(i) - b;
+            if (cmp != 0) return cmp;
+        }
+        for (int i = n; i < longitud; i++)
+            if (datos.get(inicio + i) < 0) return key.compareTo(select(k));
+        return key.length() - longitud;
+    }
+
+    @Override
+    public int size() {
+        return N;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    @Override
+    public int rank(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        int i = buscar(key);
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.RANK, inicio);
+        return i;
+    }
+
+    /**
+     * Búsqueda binaria de rank(); las demás operaciones la usan directamente
+     * para que sus latencias no se cuenten también como RANK.
+     */
+    private int buscar(String key) {
+        int lo = 0, hi = N - 1, comparaciones = 0;
+        try {
+            while (lo <= hi) {
+                int mid = lo + (hi - lo) / 2;
+                int cmp = comparar(key, mid);
+                comparaciones++;
+                if (cmp < 0) hi = mid - 1;
+                else if (cmp > 0) lo = mid + 1;
+                else return mid;
+            }
+            return lo;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.comparaciones(comparaciones);
+        }
+    }
+
+    @Override
+    public int get(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int i = buscar(key);
+            if (i < N && comparar(key, i) == 0) return frecuenciaEn(i);
+            return 0;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.GET, inicio);
+        }
+    }
+
+    @Override
+    public int frecuenciaEn(int k) {
+        return datos.getInt(inicioFrecuencias + 4 * k);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        if (key == null) return false;
+        int i = buscar(key);
+        return i < N && comparar(key, i) == 0;
+    }
+
+    @Override
+    public long totalApariciones() {
+        return datos.getLong(32);
+    }
+
+    @Override
+    public int hapax() {
+        return datos.getInt(40);
+    }
+
+    @Override
+    public int repetidas() {
+        return datos.getInt(44);
+    }
+
+    /**
+     * Para frecuencias mayores que 1 recorre el archivo una vez y guarda el histograma.
+     */
+    @Override
+    public int clavesConFrecuencia(int frecuencia) {
+        if (frecuencia == 1) return hapax();
+        if (frecuencia < 1) return 0;
+        HashMap<Integer, Integer> conteo = histograma;
+        if (conteo == null) {
+            conteo = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                int f = frecuenciaEn(i);
+                if (f > 1) conteo.merge(f, 1, Integer::sum);
+            }
+            histograma = conteo;
+        }
+        return conteo.getOrDefault(frecuencia, 0);
+    }
+
+    /**
+     * Retorna la clave en la posición k; es el único punto donde se crea un String.
+     */
+    @Override
+    public String select(int k) {
+        byte[] bytes = new byte[longitudClave(k)];
+        datos.get(inicioClave(k), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String min() {
+        return isEmpty() ? null : select(0);
+    }
+
+    @Override
+    public String max() {
+        return isEmpty() ? null : select(N - 1);
+    }
+
+    @Override
+    public String floor(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null || isEmpty()) return null;
+            int i = buscar(key);
+            if (i < N && comparar(key, i) == 0) return select(i);
+            return i == 0 ? null : select(i - 1);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.FLOOR, inicio);
+        }
+    }
+
+    @Override
+    public String ceiling(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null) return null;
+            int i = buscar(key);
+            return i < N ? select(i) : null;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.CEILING, inicio);
+        }
+    }
+
+    /**
+     * Retorna las claves del rango [lo, hi]; cada clave se lee del archivo mapeado al recorrer la vista.
+     */
+    @Override
+    public Rango<String> keys(String lo, String hi) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int fin = buscar(hi);
+            if (fin < N && comparar(hi, fin) == 0) fin++;
+            return new Rango<String>(buscar(lo), fin, this::select);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.KEYS, inicio);
+        }
+    }
+
+    /**
+     * Copia la instantánea a una TablaFrecuencias modificable.
+     *
+     * Las claves ya vienen ordenadas, por lo que construir() no reordena nada.
+     *
+     * @return una tabla en memoria con el mismo contenido
+     */
+    public TablaFrecuencias<String> aTabla() {
+        String[] claves = new String[N];
+        int[] frecuencias = new int[N];
+        for (int i = 0; i < N; i++) {
+            claves[i] = select(i);
+            frecuencias[i] = frecuenciaEn(i);
+        }
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>(0);
+        tabla.construir(claves, frecuencias, N);
+        return tabla;
+    }
+}
@@ -0,0 +1,270 @@
+package TablaOrdenada;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Contadores opcionales de trabajo y latencia de las tablas y de la ingesta.
+ *
+ * Se activan al arrancar con -Dbiblia.metricas=true. ACTIVAS es una constante
+ * static final, así que con las métricas desactivadas el compilador JIT
+ * elimina cada bloque "if (Metricas.ACTIVAS)" y las tablas no pagan nada por
+ * estar instrumentadas.
+ *
+ * Por cada operación se cuentan las llamadas y se guarda un histograma de
+ * latencias en cubetas de potencias de dos (la cubeta b > 0 cuenta las
+ * llamadas que tardaron menos de 2^b nanosegundos y al menos 2^(b-1)), del
+ * que salen percentiles aproximados. Además se cuentan las comparaciones de las
+ * búsquedas binarias, los elementos que put y delete desplazan en los arrays
+ * (lo que delata el costo cuadrático de insertar una a una), los bytes y
+ * palabras leídos por la ingesta con su tiempo y, cuando la tabla se abre
+ * desde la instantánea en lugar de procesar el texto, los bytes mapeados y
+ * las palabras que representan.
+ *
+ * Los contadores son LongAdder, de modo que varios hilos pueden registrar a
+ * la vez sin contención. Se publican en JMX como "ProyectoBiblia:type=Metricas"
+ * y como texto con volcado().
+ *
+ * @author cvaro
+ */
+public final class Metricas implements MetricasMBean {
+
+    /** true si se arrancó con -Dbiblia.metricas=true */
+    public static final boolean ACTIVAS = Boolean.getBoolean("biblia.metricas");
+
+    /** Nombre con el que se registra el MBean */
+    public static final String NOMBRE_JMX = "ProyectoBiblia:type=Metricas";
+
+    /**
+     * Operaciones medidas.
+     */
+    public enum Operacion { GET, PUT, MERGE, DELETE, RANK, FLOOR, CEILING, KEYS }
+
+    /** Una cubeta por cada bit de un long de nanosegundos */
+    private static final int CUBETAS = 64;
+
+    private static final Operacion[] OPERACIONES = Operacion.values();
+
+    /** Llamadas por operación */
+    private static final LongAdder[] llamadas = adders(OPERACIONES.length);
+
+    /** Suma de latencias por operación, en nanosegundos */
+    private static final LongAdder[] nanos = adders(OPERACIONES.length);
+
+    /** Histograma de latencias por operación */
+    private static final LongAdder[][] latencias = new LongAdder[OPERACIONES.length][];
+
+    private static final LongAdder comparaciones = new LongAdder();
+    private static final LongAdder desplazados = new LongAdder();
+    private static final LongAdder bytesIngeridos = new LongAdder();
+    private static final LongAdder tokensIngeridos = new LongAdder();
+    private static final LongAdder nanosIngesta = new LongAdder();
+    private static final LongAdder bytesInstantanea = new LongAdder();
+    private static final LongAdder tokensInstantanea = new LongAdder();
+    private static final LongAdder nanosInstantanea = new LongAdder();
+
+    static {
+        for (int i = 0; i < latencias.length; i++) latencias[i] = adders(CUBETAS);
+        if (ACTIVAS) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Metricas(), new ObjectName(NOMBRE_JMX));
+            } catch (JMException e) {
+                System.err.println("No se pudieron registrar las metricas en JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    private Metricas() {
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] a = new LongAdder[n];
+        for (int i = 0; i < n; i++) a[i] = new LongAdder();
+        return a;
+    }
+
+    /**
+     * Registra una llamada a una operación que empezó en el instante dado.
+     *
+     * @param operacion operación medida
+     * @param inicio valor de System.nanoTime() al empezar la operación
+     */
+    public static void medir(Operacion operacion, long inicio) {
+        long t = Math.max(0, System.nanoTime() - inicio);
+        int o = operacion.ordinal();
+        llamadas[o].increment();
+        nanos[o].add(t);
+        latencias[o][CUBETAS - Long.numberOfLeadingZeros(t)].increment();
+    }
+
+    /**
+     * Suma comparaciones de claves hechas por una búsqueda.
+     *
+     * @param n número de comparaciones
+     */
+    public static void comparaciones(long n) {
+        comparaciones.add(n);
+    }
+
+    /**
+     * Suma elementos movidos de posición en los arrays.
+     *
+     * @param n número de elementos desplazados
+     */
+    public static void desplazados(long n) {
+        desplazados.add(n);
+    }
+
+    /**
+     * Registra la lectura de un archivo.
+     *
+     * @param bytes tamaño leído
+     * @param tokens palabras contadas
+     * @param tiempo nanosegundos que tomó la lectura
+     */
+    public static void ingesta(long bytes, long tokens, long tiempo) {
+        bytesIngeridos.add(bytes);
+        tokensIngeridos.add(tokens);
+        nanosIngesta.add(tiempo);
+    }
+
+    /**
+     * Registra la apertura de una instantánea, que reemplaza a la ingesta del texto.
+     *
+     * @param bytes tamaño del archivo mapeado
+     * @param tokens palabras del corpus que contiene la instantánea
+     * @param tiempo nanosegundos que tomó abrirla
+     */
+    public static void instantanea(long bytes, long tokens, long tiempo) {
+        bytesInstantanea.add(bytes);
+        tokensInstantanea.add(tokens);
+        nanosInstantanea.add(tiempo);
+    }
+
+    /**
+     * Límite superior aproximado, en nanosegundos, del percentil p de una operación.
+     */
+    private static long percentil(int o, double p) {
+        long total = llamadas[o].sum();
+        if (total == 0) return 0;
+        long objetivo = (long) Math.ceil(total * p), acumulado = 0;
+        for (int b = 0; b < CUBETAS; b++) {
+            acumulado += latencias[o][b].sum();
+            if (acumulado >= objetivo) return b == 0 ? 0 : 1L << Math.min(b, 62);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static double porSegundo(long cantidad) {
+        long t = nanosIngesta.sum();
+        return t == 0 ? 0 : cantidad * 1e9 / t;
+    }
+
+    /**
+     * Retorna todas las métricas como texto, una operación por línea.
+     *
+     * Los percentiles son el límite superior de la cubeta en la que caen,
+     * así que pueden exceder el valor real hasta el doble.
+     *
+     * @return el volcado de texto
+     */
+    public static String volcado() {
+        StringBuilder sb = new StringBuilder();
+        if (!ACTIVAS) sb.append("(metricas desactivadas; arranque con -Dbiblia.metricas=true)\n");
+        sb.append(String.format("%-9s %12s %12s %12s %12s %12s%n", "operacion", "llamadas", "media ns", "p50 ns <=", "p99 ns <=", "max ns <="));
+        for (Operacion op : OPERACIONES) {
+            int o = op.ordinal();
+            long n = llamadas[o].sum();
+            if (n == 0) continue;
+            sb.append(String.format("%-9s %12d %12d %12d %12d %12d%n", op, n, nanos[o].sum() / n,
+                    percentil(o, 0.5), percentil(o, 0.99), percentil(o, 1.0)));
+        }
+        sb.append(String.format("comparaciones: %d%n", comparaciones.sum()));
+        sb.append(String.format("elementos desplazados: %d%n", desplazados.sum()));
+        sb.append(String.format("ingesta: %d bytes, %d palabras en %d ms (%.0f palabras/s, %.1f MB/s)%n",
+                bytesIngeridos.sum(), tokensIngeridos.sum(), nanosIngesta.sum() / 1_000_000,
+                porSegundo(tokensIngeridos.sum()), porSegundo(bytesIngeridos.sum()) / 1e6));
+        if (bytesInstantanea.sum() > 0) {
+            sb.append(String.format("instantanea: %d bytes mapeados, %d palabras en %d ms%n",
+                    bytesInstantanea.sum(), tokensInstantanea.sum(), nanosInstantanea.sum() / 1_000_000));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Pone todos los contadores en cero.
+     */
+    public static void reiniciarTodo() {
+        for (int o = 0; o < OPERACIONES.length; o++) {
+            llamadas[o].reset();
+            nanos[o].reset();
+            for (LongAdder cubeta : latencias[o]) cubeta.reset();
+        }
+        comparaciones.reset();
+        desplazados.reset();
+        bytesIngeridos.reset();
+        tokensIngeridos.reset();
+        nanosIngesta.reset();
+        bytesInstantanea.reset();
+        tokensInstantanea.reset();
+        nanosInstantanea.reset();
+    }
+
+    @Override
+    public long getComparaciones() {
+        return comparaciones.sum();
+    }
+
+    @Override
+    public long getElementosDesplazados() {
+        return desplazados.sum();
+    }
+
+    @Override
+    public long getTokensIngeridos() {
+        return tokensIngeridos.sum();
+    }
+
+    @Override
+    public long getBytesIngeridos() {
+        return bytesIngeridos.sum();
+    }
+
+    @Override
+    public double getTokensPorSegundo() {
+        return porSegundo(tokensIngeridos.sum());
+    }
+
+    @Override
+    public double getBytesPorSegundo() {
+        return porSegundo(bytesIngeridos.sum());
+    }
+
+    @Override
+    public long[] getLlamadas() {
+        long[] r = new long[OPERACIONES.length];
+        for (int o = 0; o < r.length; o++) r[o] = llamadas[o].sum();
+        return r;
+    }
+
+    @Override
+    public double[] getLatenciaMedia() {
+        double[] r = new double[OPERACIONES.length];
+        for (int o = 0; o < r.length; o++) {
+            long n = llamadas[o].sum();
+            r[o] = n == 0 ? 0 : (double) nanos[o].sum() / n;
+        }
+        return r;
+    }
+
+    @Override
+    public String getVolcado() {
+        return volcado();
+    }
+
+    public void reiniciar() {
+        reiniciarTodo();
+    }
+}
@@ -0,0 +1,62 @@
+package TablaOrdenada;
+
+/**
+ * Interfaz de gestión (JMX) de las métricas de las tablas y de la ingesta.
+ *
+ * Cada getter aparece como un atributo de solo lectura en JConsole o
+ * VisualVM, bajo el nombre "ProyectoBiblia:type=Metricas".
+ *
+ * @author cvaro
+ */
+public interface MetricasMBean {
+
+    /**
+     * @return comparaciones de claves hechas por las búsquedas binarias
+     */
+    long getComparaciones();
+
+    /**
+     * @return elementos desplazados en los arrays por inserciones y eliminaciones
+     */
+    long getElementosDesplazados();
+
+    /**
+     * @return palabras leídas por la ingesta
+     */
+    long getTokensIngeridos();
+
+    /**
+     * @return bytes leídos por la ingesta
+     */
+    long getBytesIngeridos();
+
+    /**
+     * @return palabras por segundo durante el tiempo de ingesta acumulado
+     */
+    double getTokensPorSegundo();
+
+    /**
+     * @return bytes por segundo durante el tiempo de ingesta acumulado
+     */
+    double getBytesPorSegundo();
+
+    /**
+     * @return llamadas de cada operación, en el orden de Metricas.Operacion
+     */
+    long[] getLlamadas();
+
+    /**
+     * @return latencia media en nanosegundos de cada operación, en el orden de Metricas.Operacion
+     */
+    double[] getLatenciaMedia();
+
+    /**
+     * @return el volcado de texto con todas las métricas
+     */
+    String getVolcado();
+
+    /**
+     * Pone todos los contadores en cero.
+     */
+    void reiniciar();
+}
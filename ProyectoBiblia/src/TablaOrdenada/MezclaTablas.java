@@ -0,0 +1,217 @@
+package TablaOrdenada;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Combinación y comparación de varias tablas ordenadas en una sola pasada.
+ *
+ * Cada tabla ya tiene sus claves ordenadas, así que no hace falta volver a
+ * insertarlas una a una con put() (que desplaza el array en cada clave nueva
+ * y cuesta O(N²)): basta recorrerlas a la vez, como la fase de mezcla de
+ * mergesort, tomando en cada paso la menor clave entre las posiciones
+ * actuales. combinar() suma las frecuencias de las claves repetidas y
+ * produce una tabla nueva en O(N log k) para N claves en k tablas; con
+ * pocas tablas es lineal. comparar() recorre dos tablas igual, sin crear
+ * ninguna tabla, y avisa a un Visitante de cada clave según en qué lado está.
+ *
+ * Las tablas se leen con select() y frecuenciaEn(), de modo que sirven la
+ * tabla en memoria, la compacta y la instantánea mapeada desde disco.
+ *
+ * @author cvaro
+ */
+public class MezclaTablas {
+
+    /**
+     * Recibe las claves de dos tablas comparadas, en orden ascendente.
+     *
+     * Todos los métodos tienen una implementación vacía, de modo que basta
+     * sobrescribir los que interesen.
+     *
+     * @param <Key> tipo de las claves
+     */
+    public interface Visitante<Key> {
+
+        /**
+         * Clave que solo está en la primera tabla.
+         *
+         * @param clave la clave
+         * @param frecuencia su frecuencia en la primera tabla
+         */
+        default void soloEnPrimera(Key clave, int frecuencia) {
+        }
+
+        /**
+         * Clave que solo está en la segunda tabla.
+         *
+         * @param clave la clave
+         * @param frecuencia su frecuencia en la segunda tabla
+         */
+        default void soloEnSegunda(Key clave, int frecuencia) {
+        }
+
+        /**
+         * Clave que está en ambas tablas.
+         *
+         * @param clave la clave
+         * @param primera su frecuencia en la primera tabla
+         * @param segunda su frecuencia en la segunda tabla
+         */
+        default void enAmbas(Key clave, int primera, int segunda) {
+        }
+    }
+
+    /**
+     * Una tabla que se recorre en orden: su tamaño, cómo leer la clave y la
+     * frecuencia de cada posición, y la posición actual.
+     */
+    private static final class Fuente<Key> {
+        final int tamanio;
+        final IntFunction<Key> clave;
+        final IntUnaryOperator frecuencia;
+        int posicion;
+        Key actual;
+
+        Fuente(int tamanio, IntFunction<Key> clave, IntUnaryOperator frecuencia) {
+            this.tamanio = tamanio;
+            this.clave = clave;
+            this.frecuencia = frecuencia;
+            actual = tamanio > 0 ? clave.apply(0) : null;
+        }
+
+        /** Frecuencia de la clave actual; avanza a la siguiente */
+        int avanzar() {
+            int f = frecuencia.applyAsInt(posicion++);
+            actual = posicion < tamanio ? clave.apply(posicion) : null;
+            return f;
+        }
+    }
+
+    private MezclaTablas() {
+    }
+
+    /**
+     * Combina varias tablas en una tabla de frecuencias nueva.
+     *
+     * Las claves que están en varias tablas aparecen una sola vez, con la
+     * suma de sus frecuencias. Las tablas de entrada no se modifican.
+     *
+     * @param tablas tablas a combinar
+     * @return una tabla nueva con todas las claves
+     */
+    public static <Key extends Comparable<Key>> TablaFrecuencias<Key> combinar(List<? extends ConsultaFrecuencias<Key>> tablas) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Fuente<Key>[] fuentes = new Fuente[tablas.size()];
+        for (int i = 0; i < fuentes.length; i++) {
+            ConsultaFrecuencias<Key> t = tablas.get(i);
+            fuentes[i] = new Fuente<>(t.size(), t::select, t::frecuenciaEn);
+        }
+        Mezcla<Key> mezcla = mezclar(fuentes);
+        // Las claves ya salen ordenadas: el mergesort de construir() lo detecta y no mueve nada
+        TablaFrecuencias<Key> resultado = new TablaFrecuencias<>(0);
+        resultado.construir(mezcla.claves, mezcla.frecuencias, mezcla.n);
+        return resultado;
+    }
+
+    /**
+     * Combina varias tablas de símbolos con frecuencias Integer en una tabla nueva.
+     *
+     * @param tablas tablas a combinar
+     * @return una tabla nueva con todas las claves y la suma de sus frecuencias
+     * @see #combinar(List)
+     */
+    public static <Key extends Comparable<Key>> TablaDeSimbolosOrdenada<Key, Integer> combinarSimbolos(
+            List<TablaDeSimbolosOrdenada<Key, Integer>> tablas) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Fuente<Key>[] fuentes = new Fuente[tablas.size()];
+        for (int i = 0; i < fuentes.length; i++) {
+            TablaDeSimbolosOrdenada<Key, Integer> t = tablas.get(i);
+            fuentes[i] = new Fuente<>(t.size(), t::select, k -> t.valorEn(k));
+        }
+        Mezcla<Key> mezcla = mezclar(fuentes);
+        Integer[] valores = new Integer[mezcla.n];
+        for (int i = 0; i < mezcla.n; i++) valores[i] = mezcla.frecuencias[i];
+        TablaDeSimbolosOrdenada<Key, Integer> resultado = new TablaDeSimbolosOrdenada<>(0);
+        resultado.construir(mezcla.claves, valores, mezcla.n);
+        return resultado;
+    }
+
+    /**
+     * Claves distintas en orden y sus frecuencias sumadas; solo las primeras n son válidas.
+     */
+    private record Mezcla<Key>(Key[] claves, int[] frecuencias, int n) {
+    }
+
+    /**
+     * Mezcla las fuentes con un montículo de mínimos ordenado por su clave actual.
+     */
+    private static <Key extends Comparable<Key>> Mezcla<Key> mezclar(Fuente<Key>[] fuentes) {
+        int total = 0;
+        for (Fuente<Key> f : fuentes) total += f.tamanio;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Key[] claves = (Key[]) new Comparable[total];
+        int[] frecuencias = new int[total];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Fuente<Key>[] monticulo = new Fuente[fuentes.length];
+        int m = 0;
+        for (Fuente<Key> f : fuentes) if (f.actual != null) monticulo[m++] = f;
+        for (int i = m / 2 - 1; i >= 0; i--) hundir(monticulo, i, m);
+        int k = 0;
+        while (m > 0) {
+            Fuente<Key> menor = monticulo[0];
+            Key clave = menor.actual;
+            if (k > 0 && claves[k - 1].compareTo(clave) == 0) {
+                frecuencias[k - 1] += menor.avanzar();
+            } else {
+                claves[k] = clave;
+                frecuencias[k++] = menor.avanzar();
+            }
+            if (menor.actual == null) monticulo[0] = monticulo[--m];
+            hundir(monticulo, 0, m);
+        }
+        return new Mezcla<>(claves, frecuencias, k);
+    }
+
+    private static <Key extends Comparable<Key>> void hundir(Fuente<Key>[] monticulo, int i, int m) {
+        while (2 * i + 1 < m) {
+            int j = 2 * i + 1;
+            if (j + 1 < m && monticulo[j + 1].actual.compareTo(monticulo[j].actual) < 0) j++;
+            if (monticulo[i].actual.compareTo(monticulo[j].actual) <= 0) return;
+            Fuente<Key> t = monticulo[i];
+            monticulo[i] = monticulo[j];
+            monticulo[j] = t;
+            i = j;
+        }
+    }
+
+    /**
+     * Compara dos tablas recorriéndolas a la vez y avisa al visitante de cada clave, en orden.
+     *
+     * No crea ninguna estructura intermedia: cuesta O(N + M) comparaciones
+     * de claves y la memoria que use el visitante.
+     *
+     * @param primera una tabla
+     * @param segunda la otra tabla
+     * @param visitante recibe cada clave según en qué tablas está
+     */
+    public static <Key extends Comparable<Key>> void comparar(ConsultaFrecuencias<Key> primera,
+            ConsultaFrecuencias<Key> segunda, Visitante<Key> visitante) {
+        int n = primera.size(), m = segunda.size();
+        int i = 0, j = 0;
+        Key a = n > 0 ? primera.select(0) : null;
+        Key b = m > 0 ? segunda.select(0) : null;
+        while (a != null || b != null) {
+            int cmp = a == null ? 1 : b == null ? -1 : a.compareTo(b);
+            if (cmp < 0) {
+                visitante.soloEnPrimera(a, primera.frecuenciaEn(i));
+            } else if (cmp > 0) {
+                visitante.soloEnSegunda(b, segunda.frecuenciaEn(j));
+            } else {
+                visitante.enAmbas(a, primera.frecuenciaEn(i), segunda.frecuenciaEn(j));
+            }
+            if (cmp <= 0) a = ++i < n ? primera.select(i) : null;
+            if (cmp >= 0) b = ++j < m ? segunda.select(j) : null;
+        }
+    }
+}
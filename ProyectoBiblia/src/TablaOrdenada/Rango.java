@@ -0,0 +1,281 @@
+package TablaOrdenada;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Vista perezosa de un rango de posiciones [desde, hasta) de una tabla ordenada.
+ *
+ * Es lo que retorna keys(lo, hi): los dos límites se calculan una sola vez al
+ * crear la vista y las claves se leen de la tabla a medida que se recorren,
+ * sin copiarlas a una cola. Un Cursor sobre la vista expone además la posición
+ * (rank) de la clave actual, con la que se obtiene su valor en O(1) mediante
+ * frecuenciaEn() o valorEn(), sin una segunda búsqueda binaria.
+ *
+ * La vista se puede recorrer en orden ascendente o descendente, y convertir
+ * en un Stream (secuencial o paralelo) mediante un Spliterator que divide el
+ * rango por la mitad.
+ *
+ * La vista no copia la tabla: si esta se modifica mientras se recorre,
+ * el resultado no está definido.
+ *
+ * @param <Key> tipo de las claves
+ * @author cvaro
+ */
+public class Rango<Key> implements Iterable<Key> {
+
+    /** Primera posición del rango */
+    private final int desde;
+
+    /** Posición siguiente a la última del rango */
+    private final int hasta;
+
+    /** Acceso a la clave de cada posición de la tabla */
+    private final IntFunction<Key> clave;
+
+    /**
+     * Crea una vista sobre las posiciones [desde, hasta) de una tabla.
+     *
+     * @param desde primera posición
+     * @param hasta posición siguiente a la última; si es menor que desde, el rango queda vacío
+     * @param clave función que retorna la clave de una posición (normalmente select)
+     */
+    public Rango(int desde, int hasta, IntFunction<Key> clave) {
+        this.desde = desde;
+        this.hasta = Math.max(desde, hasta);
+        this.clave = clave;
+    }
+
+    /**
+     * Retorna la primera posición del rango.
+     *
+     * @return rank de la primera clave
+     */
+    public int desde() {
+        return desde;
+    }
+
+    /**
+     * Retorna la posición siguiente a la última del rango.
+     *
+     * @return rank de la última clave más uno
+     */
+    public int hasta() {
+        return hasta;
+    }
+
+    /**
+     * Retorna el número de claves del rango, sin recorrerlo.
+     *
+     * @return número de claves
+     */
+    public int size() {
+        return hasta - desde;
+    }
+
+    /**
+     * Verifica si el rango no tiene claves.
+     *
+     * @return true si el rango está vacío
+     */
+    public boolean isEmpty() {
+        return hasta == desde;
+    }
+
+    /**
+     * Retorna un cursor que recorre el rango en orden ascendente.
+     *
+     * @return cursor situado antes de la primera clave
+     */
+    public Cursor cursor() {
+        return new Cursor(false);
+    }
+
+    /**
+     * Retorna un cursor que recorre el rango en orden descendente.
+     *
+     * @return cursor situado después de la última clave
+     */
+    public Cursor cursorDescendente() {
+        return new Cursor(true);
+    }
+
+    /**
+     * Itera las claves del rango en orden ascendente.
+     */
+    @Override
+    public Iterator<Key> iterator() {
+        return new Iterador(cursor());
+    }
+
+    /**
+     * Retorna las claves del rango en orden descendente.
+     *
+     * @return un Iterable que recorre el rango de la última clave a la primera
+     */
+    public Iterable<Key> descendente() {
+        return () -> new Iterador(cursorDescendente());
+    }
+
+    /**
+     * Retorna un Spliterator ordenado y de tamaño conocido sobre el rango.
+     */
+    @Override
+    public Spliterator<Key> spliterator() {
+        return new Divisor(desde, hasta);
+    }
+
+    /**
+     * Retorna las claves del rango como Stream.
+     *
+     * @param paralelo true para obtener un Stream paralelo
+     * @return Stream de las claves en orden ascendente
+     */
+    public Stream<Key> stream(boolean paralelo) {
+        return StreamSupport.stream(spliterator(), paralelo);
+    }
+
+    /**
+     * Recorre el rango posición por posición.
+     *
+     * Al crearlo no apunta a ninguna clave; cada llamada a siguiente()
+     * avanza una posición (hacia adelante o hacia atrás, según cómo se creó).
+     */
+    public class Cursor {
+
+        /** Posición actual */
+        private int i;
+
+        /** Paso entre posiciones: 1 o -1 */
+        private final int paso;
+
+        private Cursor(boolean descendente) {
+            paso = descendente ? -1 : 1;
+            i = descendente ? hasta : desde - 1;
+        }
+
+        /**
+         * Avanza a la siguiente clave del rango.
+         *
+         * @return false si ya no quedan claves
+         */
+        public boolean siguiente() {
+            int j = i + paso;
+            if (j < desde || j >= hasta) return false;
+            i = j;
+            return true;
+        }
+
+        /**
+         * Retorna la posición (rank) de la clave actual en la tabla.
+         *
+         * @return posición actual
+         */
+        public int posicion() {
+            return i;
+        }
+
+        /**
+         * Retorna la clave actual.
+         *
+         * @return la clave en la posición actual
+         */
+        public Key clave() {
+            return clave.apply(i);
+        }
+    }
+
+    /**
+     * Adapta un Cursor a la interfaz Iterator.
+     */
+    private class Iterador implements Iterator<Key> {
+
+        private final Cursor cursor;
+
+        /** Si el cursor ya se adelantó para responder hasNext() */
+        private boolean preparado;
+
+        /** Resultado de ese adelanto */
+        private boolean hay;
+
+        private Iterador(Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!preparado) {
+                hay = cursor.siguiente();
+                preparado = true;
+            }
+            return hay;
+        }
+
+        @Override
+        public Key next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            preparado = false;
+            return cursor.clave();
+        }
+    }
+
+    /**
+     * Spliterator sobre un subrango de posiciones; se divide por la mitad.
+     */
+    private class Divisor implements Spliterator<Key> {
+
+        private int i;
+
+        private final int fin;
+
+        private Divisor(int i, int fin) {
+            this.i = i;
+            this.fin = fin;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Key> accion) {
+            if (i >= fin) return false;
+            accion.accept(clave.apply(i++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Key> accion) {
+            for (; i < fin; i++) accion.accept(clave.apply(i));
+        }
+
+        @Override
+        public Spliterator<Key> trySplit() {
+            int mitad = (i + fin) >>> 1;
+            if (mitad <= i) return null;
+            Divisor prefijo = new Divisor(i, mitad);
+            i = mitad;
+            return prefijo;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fin - i;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL;
+        }
+
+        /**
+         * Las claves siguen su orden natural.
+         */
+        @Override
+        public Comparator<? super Key> getComparator() {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package TablaOrdenada;
-import TablaOrdenada.Queue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 /**
  * Implementación de una tabla de símbolos ordenada utilizando arrays paralelos.
  * 
@@ -7,11 +9,36 @@ import TablaOrdenada.Queue;
  * utilizando dos arrays paralelos: uno para las claves ordenadas y otro para 
  * los valores correspondientes.
  * 
+ * Con los arrays, get(), rank(), select() y las demás consultas son muy
+ * rápidas, pero cada put() de una clave nueva y cada delete() desplazan hasta
+ * N elementos. Si la tabla se va a modificar mucho después de cargada, se
+ * puede construir con Implementacion.ARBOL: la tabla delega entonces en un
+ * árbol rojo-negro con el tamaño de cada subárbol, donde todas las
+ * operaciones, incluidas las modificaciones, cuestan O(log N). La API y los
+ * resultados son los mismos con ambas implementaciones.
+ * 
+ * Los arrays se usan de forma circular, como una cola doble: la clave de
+ * posición i está en la casilla primero + i, dando la vuelta al final del
+ * array. Así deletemin() y deletemax() solo avanzan un extremo, en O(1), y
+ * drainMin()/drainMax() quitan un lote entero de una vez, mientras select()
+ * sigue siendo O(1). put() y delete() desplazan la parte más corta, la de
+ * la izquierda o la de la derecha de la posición afectada.
+ * 
  * @param <Key> tipo de las claves, debe implementar Comparable
  * @param <Value> tipo de los valores asociados a las claves
  * @author cvaro
  */
 public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
+
+    /**
+     * Estructura en la que se guardan los pares de la tabla.
+     */
+    public enum Implementacion {
+        /** Arrays paralelos ordenados: consultas más rápidas, modificaciones O(N) */
+        ARREGLOS,
+        /** Árbol rojo-negro: consultas y modificaciones O(log N) */
+        ARBOL
+    }
     
     /** Array que almacena las claves en orden ascendente */
     private Key[] keys;
@@ -22,17 +49,104 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
     /** Número actual de elementos en la tabla */
     private int N;
 
+    /** Casilla de los arrays donde está la clave mínima */
+    private int primero;
+
+    /** Capacidad inicial usada por el constructor sin argumentos */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** Árbol en el que se delega con Implementacion.ARBOL; null con ARREGLOS */
+    private final ArbolRojoNegro<Key, Value> arbol;
+
+    /**
+     * Construye una nueva tabla de símbolos ordenada vacía con la capacidad inicial por defecto.
+     * 
+     * Los arrays internos crecen automáticamente a medida que se insertan claves.
+     */
+    public TablaDeSimbolosOrdenada() {
+        this(CAPACIDAD_INICIAL);
+    }
+
     /**
      * Construye una nueva tabla de símbolos ordenada con la capacidad especificada.
      * 
      * Inicializa los arrays internos con la capacidad dada. La tabla
-     * comenzará vacía y podrá crecer hasta la capacidad máxima especificada.
+     * comenzará vacía; la capacidad es solo inicial, ya que los arrays se
+     * duplican al llenarse y se reducen a la mitad cuando quedan a un cuarto.
      * 
-     * @param capacity capacidad máxima de la tabla
+     * @param capacity capacidad inicial de la tabla
      */
     public TablaDeSimbolosOrdenada(int capacity) { 
         keys = (Key[]) new Comparable[capacity]; 
         vals = (Value[]) new Object[capacity];
+        arbol = null;
+    }
+
+    /**
+     * Construye una nueva tabla de símbolos ordenada vacía con la implementación indicada.
+     * 
+     * @param implementacion ARREGLOS para los arrays paralelos o ARBOL para el árbol rojo-negro
+     */
+    public TablaDeSimbolosOrdenada(Implementacion implementacion) {
+        if (implementacion == Implementacion.ARBOL) {
+            keys = (Key[]) new Comparable[0];
+            vals = (Value[]) new Object[0];
+            arbol = new ArbolRojoNegro<>();
+        } else {
+            keys = (Key[]) new Comparable[CAPACIDAD_INICIAL];
+            vals = (Value[]) new Object[CAPACIDAD_INICIAL];
+            arbol = null;
+        }
+    }
+
+    /**
+     * Retorna la implementación con la que se construyó la tabla.
+     * 
+     * @return ARREGLOS o ARBOL
+     */
+    public Implementacion implementacion() {
+        return arbol == null ? Implementacion.ARREGLOS : Implementacion.ARBOL;
+    }
+
+    /**
+     * Cambia la capacidad de los arrays internos conservando los elementos.
+     * 
+     * @param capacidad nueva capacidad, mayor o igual que N
+     */
+    private void resize(int capacidad) {
+        Key[] nuevasClaves = (Key[]) new Comparable[capacidad];
+        Value[] nuevosValores = (Value[]) new Object[capacidad];
+        // Los elementos pueden dar la vuelta al final del array: se copian en dos tramos
+        int tramo = Math.min(N, keys.length - primero);
+        System.arraycopy(keys, primero, nuevasClaves, 0, tramo);
+        System.arraycopy(vals, primero, nuevosValores, 0, tramo);
+        System.arraycopy(keys, 0, nuevasClaves, tramo, N - tramo);
+        System.arraycopy(vals, 0, nuevosValores, tramo, N - tramo);
+        keys = nuevasClaves;
+        vals = nuevosValores;
+        primero = 0;
+    }
+
+    /**
+     * Retorna la casilla de los arrays donde está la clave de posición i.
+     * 
+     * @param i posición (rank) de la clave, de 0 a la capacidad
+     * @return la casilla primero + i, dando la vuelta al final del array
+     */
+    private int casilla(int i) {
+        int c = primero + i;
+        return c < keys.length ? c : c - keys.length;
+    }
+
+    /**
+     * Reduce la capacidad de los arrays internos al número actual de elementos.
+     * 
+     * Útil al terminar de cargar la tabla, cuando ya no se esperan más
+     * inserciones, para no reservar memoria que no se usará. Con el árbol
+     * no hace nada: cada nodo ocupa solo lo suyo.
+     */
+    public void trimToSize() {
+        if (arbol == null && keys.length > N) resize(N);
     }
 
     /**
@@ -41,7 +155,7 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return número de pares clave-valor almacenados
      */
     public int size() { 
-        return N;
+        return arbol != null ? arbol.size() : N;
     }
 
     /**
@@ -54,13 +168,19 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return el valor asociado a la clave, o null si no existe
      */
     public Value get(Key key) { 
-        if (isEmpty()) 
-            return null;
-        int i = rank(key); 
-        if (i < N && keys[i].compareTo(key) == 0) 
-            return vals[i]; 
-        else 
-            return null; 
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (arbol != null) return arbol.get(key);
+            if (isEmpty()) 
+                return null;
+            int i = buscar(key); 
+            if (i < N && keys[casilla(i)].compareTo(key) == 0) 
+                return vals[casilla(i)]; 
+            else 
+                return null; 
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.GET, inicio);
+        }
     }
 
     /**
@@ -74,15 +194,31 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return posición de la clave o posición de inserción
      */
     public int rank(Key key) {
-        int lo = 0, hi = N - 1;
-        while (lo <= hi) {
-            int mid = lo + (hi - lo) / 2;
-            int cmp = key.compareTo(keys[mid]);
-            if (cmp < 0) hi = mid - 1;
-            else if (cmp > 0) lo = mid + 1;
-            else return mid;
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        int i = arbol != null ? arbol.rank(key) : buscar(key);
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.RANK, inicio);
+        return i;
+    }
+
+    /**
+     * Búsqueda binaria de rank(); las demás operaciones la usan directamente
+     * para que sus latencias no se cuenten también como RANK.
+     */
+    private int buscar(Key key) {
+        int lo = 0, hi = N - 1, comparaciones = 0;
+        try {
+            while (lo <= hi) {
+                int mid = lo + (hi - lo) / 2;
+                int cmp = key.compareTo(keys[casilla(mid)]);
+                comparaciones++;
+                if (cmp < 0) hi = mid - 1;
+                else if (cmp > 0) lo = mid + 1;
+                else return mid;
+            }
+            return lo;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.comparaciones(comparaciones);
         }
-        return lo;
     }
 
     /**
@@ -90,24 +226,134 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * 
      * Si la clave ya existe, actualiza su valor. Si es nueva, la inserta
      * en la posición correcta para mantener el orden, desplazando elementos
-     * según sea necesario.
+     * según sea necesario. Si los arrays están llenos, duplica su capacidad.
      * 
      * @param key la clave a insertar o actualizar
      * @param val el valor a asociar con la clave
      */
     public void put(Key key, Value val) {
-        int i = rank(key);
-        if (i < N && keys[i].compareTo(key) == 0) { 
-            vals[i] = val;
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (arbol != null) {
+                arbol.put(key, val);
+                return;
+            }
+            int i = buscar(key);
+            if (i < N && keys[casilla(i)].compareTo(key) == 0) { 
+                vals[casilla(i)] = val;
+                return;
+            } 
+            if (N == keys.length) resize(Math.max(1, 2 * keys.length));
+            if (i < N - i) {
+                // Las claves menores se corren una casilla hacia atrás
+                if (Metricas.ACTIVAS) Metricas.desplazados(i);
+                primero = primero == 0 ? keys.length - 1 : primero - 1;
+                for (int j = 0; j < i; j++) {
+                    keys[casilla(j)] = keys[casilla(j + 1)];
+                    vals[casilla(j)] = vals[casilla(j + 1)];
+                }
+            } else {
+                if (Metricas.ACTIVAS) Metricas.desplazados(N - i);
+                for (int j = N; j > i; j--) { 
+                    keys[casilla(j)] = keys[casilla(j - 1)];
+                    vals[casilla(j)] = vals[casilla(j - 1)]; 
+                }
+            }
+            keys[casilla(i)] = key; 
+            vals[casilla(i)] = val; 
+            N++;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.PUT, inicio);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido de la tabla con pares clave-valor no ordenados.
+     * 
+     * En lugar de insertar uno por uno con put() (que desplaza los arrays en
+     * cada clave nueva y cuesta O(N²) en total), ordena una copia de los pares
+     * con un único mergesort, O(N log N), y elimina las claves repetidas en
+     * una pasada lineal. Si una clave aparece varias veces se conserva el
+     * último valor, igual que con put() sucesivos.
+     * 
+     * Con el árbol los pares se insertan uno por uno, O(N log N) en total.
+     * 
+     * @param claves claves en cualquier orden
+     * @param valores valores correspondientes a cada clave
+     * @param n número de pares a tomar de los arrays
+     */
+    public void construir(Key[] claves, Value[] valores, int n) {
+        if (arbol != null) {
+            arbol.vaciar();
+            for (int i = 0; i < n; i++) arbol.put(claves[i], valores[i]);
             return;
-        } 
-        for (int j = N; j > i; j--) { 
-            keys[j] = keys[j - 1];
-            vals[j] = vals[j - 1]; 
         }
-        keys[i] = key; 
-        vals[i] = val; 
-        N++;
+        Key[] k = (Key[]) new Comparable[n];
+        Value[] v = (Value[]) new Object[n];
+        System.arraycopy(claves, 0, k, 0, n);
+        System.arraycopy(valores, 0, v, 0, n);
+        ordenar(k, v, (Key[]) new Comparable[n], (Value[]) new Object[n], 0, n - 1);
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m > 0 && k[m - 1].compareTo(k[i]) == 0) {
+                v[m - 1] = v[i];
+            } else {
+                k[m] = k[i];
+                v[m] = v[i];
+                m++;
+            }
+        }
+        keys = k;
+        vals = v;
+        N = m;
+        primero = 0;
+        for (int i = m; i < n; i++) {
+            keys[i] = null;
+            vals[i] = null;
+        }
+    }
+
+    /**
+     * Reemplaza el contenido de la tabla con los pares de un mapa no ordenado.
+     * 
+     * Pensado para congelar en la tabla ordenada el resultado de un conteo
+     * hecho en una estructura hash con actualización O(1) por palabra.
+     * 
+     * @param contador mapa con las claves y valores a cargar
+     */
+    public void construir(Map<Key, Value> contador) {
+        int n = contador.size();
+        Key[] k = (Key[]) new Comparable[n];
+        Value[] v = (Value[]) new Object[n];
+        int i = 0;
+        for (Map.Entry<Key, Value> par : contador.entrySet()) {
+            k[i] = par.getKey();
+            v[i] = par.getValue();
+            i++;
+        }
+        construir(k, v, n);
+    }
+
+    /**
+     * Ordena por clave los arrays paralelos k[lo..hi] y v[lo..hi] con mergesort.
+     * 
+     * Es estable, de modo que las claves repetidas conservan su orden original.
+     */
+    private void ordenar(Key[] k, Value[] v, Key[] auxK, Value[] auxV, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        ordenar(k, v, auxK, auxV, lo, mid);
+        ordenar(k, v, auxK, auxV, mid + 1, hi);
+        if (k[mid].compareTo(k[mid + 1]) <= 0) return;
+        System.arraycopy(k, lo, auxK, lo, hi - lo + 1);
+        System.arraycopy(v, lo, auxV, lo, hi - lo + 1);
+        int i = lo, j = mid + 1;
+        for (int x = lo; x <= hi; x++) {
+            if (i > mid)                                 { k[x] = auxK[j]; v[x] = auxV[j++]; }
+            else if (j > hi)                             { k[x] = auxK[i]; v[x] = auxV[i++]; }
+            else if (auxK[j].compareTo(auxK[i]) < 0)     { k[x] = auxK[j]; v[x] = auxV[j++]; }
+            else                                         { k[x] = auxK[i]; v[x] = auxV[i++]; }
+        }
     }
 
     /**
@@ -117,58 +363,182 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return true si la tabla no contiene elementos
      */
     public boolean isEmpty() {
-        return N == 0;
+        return size() == 0;
     }
 
     /**
      * Elimina la clave especificada y su valor asociado.
      * 
-     * Si la clave existe, la elimina y desplaza todos los elementos
-     * posteriores una posición hacia la izquierda para mantener la compacidad.
+     * Si la clave existe, la elimina y desplaza una posición los elementos
+     * que están entre ella y el extremo más cercano de la tabla para
+     * mantener la compacidad. Si la tabla queda ocupada a un cuarto de su capacidad, reduce los arrays
+     * a la mitad.
+     * Con el árbol no se desplaza nada y cuesta O(log N).
      * 
      * @param key la clave a eliminar
      */
     public void delete(Key key) {
-        if (isEmpty()) return;
-        int i = rank(key);
-        if (i >= N || keys[i].compareTo(key) != 0) return;
-        for (int j = i; j < N - 1; j++) {
-            keys[j] = keys[j + 1];
-            vals[j] = vals[j + 1];
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (arbol != null) {
+                arbol.delete(key);
+                return;
+            }
+            if (isEmpty()) return;
+            int i = buscar(key);
+            if (i >= N || keys[casilla(i)].compareTo(key) != 0) return;
+            if (i < N - 1 - i) {
+                // Las claves menores se corren una casilla hacia adelante
+                if (Metricas.ACTIVAS) Metricas.desplazados(i);
+                for (int j = i; j > 0; j--) {
+                    keys[casilla(j)] = keys[casilla(j - 1)];
+                    vals[casilla(j)] = vals[casilla(j - 1)];
+                }
+                quitarPrimero();
+            } else {
+                if (Metricas.ACTIVAS) Metricas.desplazados(N - i - 1);
+                for (int j = i; j < N - 1; j++) {
+                    keys[casilla(j)] = keys[casilla(j + 1)];
+                    vals[casilla(j)] = vals[casilla(j + 1)];
+                }
+                quitarUltimo();
+            }
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
         }
-        N--;
-        keys[N] = null;
-        vals[N] = null;
     }
 
     /**
      * Elimina y retorna la clave mínima (primera en orden alfabético).
      * 
+     * Con los arrays no busca ni desplaza nada: solo avanza el inicio, O(1).
      * 
      * @return la clave mínima eliminada, o null si la tabla está vacía
      */
     public Key deletemin() {
         if (isEmpty())
             return null;
-        Key min = keys[0];
-        delete(min);
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        Key min;
+        if (arbol != null) {
+            min = arbol.deleteMin();
+        } else {
+            min = keys[primero];
+            quitarPrimero();
+        }
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
         return min;
     }
 
     /**
      * Elimina y retorna la clave máxima (última en orden alfabético).
      * 
+     * Con los arrays no busca ni desplaza nada, O(1).
      * 
      * @return la clave máxima eliminada, o null si la tabla está vacía
      */
     public Key deletemax() {
         if (isEmpty()) return null;
-        
-        Key max = keys[N - 1];
-        delete(max);
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        Key max;
+        if (arbol != null) {
+            max = arbol.deleteMax();
+        } else {
+            max = keys[casilla(N - 1)];
+            quitarUltimo();
+        }
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
         return max;
     }
 
+    /**
+     * Elimina las n claves menores y las retorna de una vez.
+     * 
+     * Equivale a n llamadas a deletemin(), pero con los arrays copia el lote
+     * en una sola pasada y reduce los arrays a lo sumo una vez. Si hacen falta
+     * los valores, se pueden leer antes con valorEn(0) a valorEn(n - 1).
+     * 
+     * @param n número de claves a eliminar; si la tabla tiene menos, se eliminan todas
+     * @return las claves eliminadas, de menor a mayor
+     */
+    public List<Key> drainMin(int n) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        n = Math.max(0, Math.min(n, size()));
+        List<Key> lote = new ArrayList<>(n);
+        if (arbol != null) {
+            for (int i = 0; i < n; i++) lote.add(arbol.deleteMin());
+        } else {
+            for (int i = 0; i < n; i++) {
+                int c = casilla(i);
+                lote.add(keys[c]);
+                keys[c] = null;
+                vals[c] = null;
+            }
+            primero = casilla(n);
+            N -= n;
+            encoger();
+        }
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
+        return lote;
+    }
+
+    /**
+     * Elimina las n claves mayores y las retorna de una vez.
+     * 
+     * @param n número de claves a eliminar; si la tabla tiene menos, se eliminan todas
+     * @return las claves eliminadas, de mayor a menor, en el orden en que las daría deletemax()
+     * @see #drainMin(int)
+     */
+    public List<Key> drainMax(int n) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        n = Math.max(0, Math.min(n, size()));
+        List<Key> lote = new ArrayList<>(n);
+        if (arbol != null) {
+            for (int i = 0; i < n; i++) lote.add(arbol.deleteMax());
+        } else {
+            for (int i = N - 1; i >= N - n; i--) {
+                int c = casilla(i);
+                lote.add(keys[c]);
+                keys[c] = null;
+                vals[c] = null;
+            }
+            N -= n;
+            encoger();
+        }
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
+        return lote;
+    }
+
+    /**
+     * Quita la clave mínima de los arrays avanzando el inicio.
+     */
+    private void quitarPrimero() {
+        keys[primero] = null;
+        vals[primero] = null;
+        primero = casilla(1);
+        N--;
+        encoger();
+    }
+
+    /**
+     * Quita la clave máxima de los arrays.
+     */
+    private void quitarUltimo() {
+        int c = casilla(N - 1);
+        keys[c] = null;
+        vals[c] = null;
+        N--;
+        encoger();
+    }
+
+    /**
+     * Reduce los arrays a la mitad si quedaron ocupados a un cuarto o menos.
+     */
+    private void encoger() {
+        if (N == 0) primero = 0;
+        else if (N <= keys.length / 4) resize(keys.length / 2);
+    }
+
     /**
      * Retorna la clave mínima (primera en orden alfabético).
      * 
@@ -176,7 +546,9 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return la clave mínima, o null si la tabla está vacía
      */
     public Key min() {
-        return keys[0];
+        if (arbol != null) return arbol.min();
+        if (N == 0) return null;
+        return keys[primero];
     }
 
     /**
@@ -186,7 +558,9 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return la clave máxima, o null si la tabla está vacía
      */
     public Key max() {
-        return keys[N - 1];
+        if (arbol != null) return arbol.max();
+        if (N == 0) return null;
+        return keys[casilla(N - 1)];
     }
 
     /**
@@ -197,7 +571,8 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return la clave en la posición k
      */
     public Key select(int k) { 
-        return keys[k];
+        if (arbol != null) return arbol.select(k);
+        return keys[casilla(k)];
     }
 
     /**
@@ -210,20 +585,26 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return la clave floor, o null si no existe ninguna clave menor o igual
      */
     public Key floor(Key key) {
-        if (key == null) return null;
-        if (isEmpty()) return null;
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null) return null;
+            if (arbol != null) return arbol.floor(key);
+            if (isEmpty()) return null;
         
-        int i = rank(key);
+            int i = buscar(key);
         
-        if (i < N && keys[i].compareTo(key) == 0) {
-            return keys[i];
-        }
+            if (i < N && keys[casilla(i)].compareTo(key) == 0) {
+                return keys[casilla(i)];
+            }
         
-        if (i == 0) {
-            return null;
-        }
+            if (i == 0) {
+                return null;
+            }
         
-        return keys[i - 1];
+            return keys[casilla(i - 1)];
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.FLOOR, inicio);
+        }
     }
 
     /**
@@ -236,8 +617,14 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      * @return la clave ceiling, o null si no existe ninguna clave mayor o igual
      */
     public Key ceiling(Key key) {
-        int i = rank(key); 
-        return keys[i];
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (arbol != null) return arbol.ceiling(key);
+            int i = buscar(key); 
+            return i < N ? keys[casilla(i)] : null;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.CEILING, inicio);
+        }
     }
 
     /**
@@ -249,26 +636,50 @@ public class TablaDeSimbolosOrdenada<Key extends Comparable<Key>, Value> {
      */
     public boolean contains(Key key) {
         if (key == null) return false;
-        int i = rank(key);
-        return i < N && keys[i].compareTo(key) == 0;
+        if (arbol != null) return arbol.contains(key);
+        int i = buscar(key);
+        return i < N && keys[casilla(i)].compareTo(key) == 0;
+    }
+
+    /**
+     * Retorna el valor en la posición k, sin búsqueda binaria.
+     * 
+     * Junto con la posición que da un cursor de keys(lo, hi), permite leer
+     * el valor de cada clave del rango sin volver a buscarla. Con el árbol
+     * cuesta O(log N), como select().
+     * 
+     * @param k posición de la clave (0 a size()-1)
+     * @return el valor asociado a la clave en la posición k
+     */
+    public Value valorEn(int k) {
+        if (arbol != null) return arbol.valorEn(k);
+        return vals[casilla(k)];
     }
 
     /**
      * Retorna todas las claves en el rango [lo, hi] en orden ascendente.
      * 
-     * Utiliza una cola para coleccionar las claves del rango especificado
-     * y permite iteración eficiente sobre el resultado.
+     * No copia las claves: calcula una sola vez las posiciones de ambos
+     * límites y retorna una vista perezosa que las lee de la tabla a medida
+     * que se recorre, y que admite recorrido descendente, cursores y Streams.
+     * Con el árbol cada clave del recorrido se lee con select(), O(log N).
      * 
      * @param lo límite inferior del rango (inclusivo)
      * @param hi límite superior del rango (inclusivo)
-     * @return un Iterable con todas las claves en el rango especificado
-     */
-    public Iterable<Key> keys(Key lo, Key hi) { 
-        Queue<Key> q = new Queue<Key>(); 
-        for (int i = rank(lo); i < rank(hi); i++) 
-            q.enqueue(keys[i]); 
-        if (contains(hi)) 
-            q.enqueue(keys[rank(hi)]); 
-        return q; 
+     * @return una vista con todas las claves en el rango especificado
+     */
+    public Rango<Key> keys(Key lo, Key hi) { 
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (arbol != null) {
+                int fin = arbol.rank(hi) + (arbol.contains(hi) ? 1 : 0);
+                return new Rango<Key>(arbol.rank(lo), fin, this::select);
+            }
+            int fin = buscar(hi);
+            if (fin < N && keys[casilla(fin)].compareTo(hi) == 0) fin++;
+            return new Rango<Key>(buscar(lo), fin, this::select);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.KEYS, inicio);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,618 @@
+package TablaOrdenada;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de símbolos ordenada especializada en frecuencias enteras.
+ *
+ * Mantiene las mismas operaciones de orden que TablaDeSimbolosOrdenada
+ * (rank, select, floor, ceiling, keys(lo, hi)...), pero guarda los valores
+ * en un array primitivo int[] en lugar de Value[], de modo que contar una
+ * aparición no crea ni desempaqueta ningún Integer. Las operaciones
+ * increment() y merge() localizan la clave con una sola búsqueda binaria
+ * y actualizan su frecuencia en el mismo lugar.
+ *
+ * Implementa ConsultaFrecuencias, por lo que puede usarse donde se espere
+ * una tabla de solo lectura (por ejemplo, en lugar de una instantánea).
+ *
+ * Además mantiene agregados del corpus (total de apariciones, claves que
+ * aparecen una sola vez, claves repetidas e histograma de frecuencias) que
+ * cada modificación actualiza en O(1) (esperado, para las frecuencias altas
+ * que se cuentan en un ContadorLargos), de modo que consultarlos no requiere
+ * recorrer la tabla. Si se pide indicePorFrecuencia(), mantiene también
+ * un índice secundario ordenado por frecuencia.
+ *
+ * @param <Key> tipo de las claves, debe implementar Comparable
+ * @author cvaro
+ */
+public class TablaFrecuencias<Key extends Comparable<Key>> implements ConsultaFrecuencias<Key> {
+
+    /** Array que almacena las claves en orden ascendente */
+    private Key[] keys;
+
+    /** Array que almacena la frecuencia de cada clave */
+    private int[] vals;
+
+    /** Número actual de elementos en la tabla */
+    private int N;
+
+    /** Capacidad inicial usada por el constructor sin argumentos */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** Frecuencias menores que este valor se cuentan en un array; las demás en un mapa */
+    private static final int HISTOGRAMA_DENSO = 1024;
+
+    /** Suma de todas las frecuencias */
+    private long totalApariciones;
+
+    /** Número de claves con frecuencia 1 */
+    private int hapax;
+
+    /** Número de claves con frecuencia mayor que 1 */
+    private int repetidas;
+
+    /** histograma[f] es el número de claves con frecuencia f, para 1 ≤ f &lt; HISTOGRAMA_DENSO */
+    private int[] histograma = new int[HISTOGRAMA_DENSO];
+
+    /** Número de claves por frecuencia, para las frecuencias altas (pocas y dispersas), sin crear Integer */
+    private ContadorLargos histogramaAlto = new ContadorLargos(16);
+
+    /** Índice secundario por frecuencia, o null mientras nadie lo haya pedido */
+    private IndiceFrecuencias<Key> porFrecuencia;
+
+    /** Nodo del índice por frecuencia de cada clave, paralelo a keys (si el índice existe) */
+    private IndiceFrecuencias.Nodo<Key>[] nodos;
+
+    /**
+     * Construye una nueva tabla de frecuencias vacía con la capacidad inicial por defecto.
+     */
+    public TablaFrecuencias() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Construye una nueva tabla de frecuencias con la capacidad inicial especificada.
+     *
+     * Los arrays se duplican al llenarse y se reducen a la mitad cuando quedan a un cuarto.
+     *
+     * @param capacity capacidad inicial de la tabla
+     */
+    public TablaFrecuencias(int capacity) {
+        keys = (Key[]) new Comparable[capacity];
+        vals = new int[capacity];
+    }
+
+    /**
+     * Cambia la capacidad de los arrays internos conservando los elementos.
+     *
+     * @param capacidad nueva capacidad, mayor o igual que N
+     */
+    private void resize(int capacidad) {
+        Key[] nuevasClaves = (Key[]) new Comparable[capacidad];
+        int[] nuevosValores = new int[capacidad];
+        System.arraycopy(keys, 0, nuevasClaves, 0, N);
+        System.arraycopy(vals, 0, nuevosValores, 0, N);
+        keys = nuevasClaves;
+        vals = nuevosValores;
+        if (nodos != null) nodos = Arrays.copyOf(nodos, capacidad);
+    }
+
+    /**
+     * Reduce la capacidad de los arrays internos al número actual de elementos.
+     */
+    public void trimToSize() {
+        if (keys.length > N) resize(N);
+    }
+
+    /**
+     * Retorna una copia independiente de la tabla, con sus agregados.
+     *
+     * Copia los arrays tal como están, sin reordenar, en O(N). El índice
+     * por frecuencia no se copia: la copia lo construye si se le pide.
+     *
+     * @return una tabla nueva con el mismo contenido
+     */
+    public TablaFrecuencias<Key> copia() {
+        TablaFrecuencias<Key> otra = new TablaFrecuencias<>(0);
+        otra.keys = Arrays.copyOf(keys, keys.length);
+        otra.vals = Arrays.copyOf(vals, vals.length);
+        otra.N = N;
+        otra.totalApariciones = totalApariciones;
+        otra.hapax = hapax;
+        otra.repetidas = repetidas;
+        otra.histograma = Arrays.copyOf(histograma, histograma.length);
+        otra.histogramaAlto = new ContadorLargos(histogramaAlto);
+        return otra;
+    }
+
+    /**
+     * Retorna el número de elementos en la tabla.
+     *
+     * @return número de claves distintas almacenadas
+     */
+    @Override
+    public int size() {
+        return N;
+    }
+
+    /**
+     * Verifica si la tabla está vacía.
+     *
+     * @return true si la tabla no contiene elementos
+     */
+    @Override
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    /**
+     * Encuentra la posición donde está o debería estar una clave.
+     *
+     * @param key la clave cuyo rango se desea determinar
+     * @return posición de la clave o posición de inserción
+     */
+    @Override
+    public int rank(Key key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        int i = buscar(key);
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.RANK, inicio);
+        return i;
+    }
+
+    /**
+     * Búsqueda binaria de rank(); las demás operaciones la usan directamente
+     * para que sus latencias no se cuenten también como RANK.
+     */
+    private int buscar(Key key) {
+        int lo = 0, hi = N - 1, comparaciones = 0;
+        try {
+            while (lo <= hi) {
+                int mid = lo + (hi - lo) / 2;
+                int cmp = key.compareTo(keys[mid]);
+                comparaciones++;
+                if (cmp < 0) hi = mid - 1;
+                else if (cmp > 0) lo = mid + 1;
+                else return mid;
+            }
+            return lo;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.comparaciones(comparaciones);
+        }
+    }
+
+    /**
+     * Obtiene la frecuencia de la clave especificada.
+     *
+     * @param key la clave cuya frecuencia se desea obtener
+     * @return la frecuencia de la clave, o 0 si no existe
+     */
+    @Override
+    public int get(Key key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (isEmpty()) return 0;
+            int i = buscar(key);
+            if (i < N && keys[i].compareTo(key) == 0)
+                return vals[i];
+            return 0;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.GET, inicio);
+        }
+    }
+
+    /**
+     * Retorna la frecuencia de la clave en la posición k, sin búsqueda binaria.
+     *
+     * @param k posición de la clave (0 a size()-1)
+     * @return la frecuencia de la clave en la posición k
+     */
+    @Override
+    public int frecuenciaEn(int k) {
+        return vals[k];
+    }
+
+    /**
+     * Verifica si la tabla contiene la clave especificada.
+     *
+     * @param key la clave a verificar
+     * @return true si la clave existe en la tabla
+     */
+    @Override
+    public boolean contains(Key key) {
+        if (key == null) return false;
+        int i = buscar(key);
+        return i < N && keys[i].compareTo(key) == 0;
+    }
+
+    /**
+     * Inserta una clave con su frecuencia o reemplaza la frecuencia existente.
+     *
+     * @param key la clave a insertar o actualizar
+     * @param val la frecuencia a asociar con la clave
+     */
+    public void put(Key key, int val) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int i = buscar(key);
+            if (i < N && keys[i].compareTo(key) == 0) {
+                contabilizar(vals[i], -1);
+                vals[i] = val;
+                contabilizar(val, 1);
+                if (nodos != null) porFrecuencia.cambiar(nodos[i], val);
+                return;
+            }
+            insertar(i, key, val);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.PUT, inicio);
+        }
+    }
+
+    /**
+     * Incrementa en uno la frecuencia de la clave, insertándola con 1 si no existe.
+     *
+     * @param key la clave cuya frecuencia se incrementa
+     * @return la nueva frecuencia de la clave
+     */
+    public int increment(Key key) {
+        return merge(key, 1);
+    }
+
+    /**
+     * Suma una cantidad a la frecuencia de la clave, insertándola si no existe.
+     *
+     * Localiza la clave con una única búsqueda binaria y actualiza el int en su lugar.
+     *
+     * @param key la clave cuya frecuencia se actualiza
+     * @param delta cantidad a sumar
+     * @return la nueva frecuencia de la clave
+     */
+    public int merge(Key key, int delta) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int i = buscar(key);
+            if (i < N && keys[i].compareTo(key) == 0) {
+                contabilizar(vals[i], -1);
+                vals[i] += delta;
+                contabilizar(vals[i], 1);
+                if (nodos != null) porFrecuencia.cambiar(nodos[i], vals[i]);
+                return vals[i];
+            }
+            insertar(i, key, delta);
+            return delta;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.MERGE, inicio);
+        }
+    }
+
+    /**
+     * Inserta una clave nueva en la posición i desplazando los elementos posteriores.
+     */
+    private void insertar(int i, Key key, int val) {
+        if (N == keys.length) resize(Math.max(1, 2 * keys.length));
+        if (Metricas.ACTIVAS) Metricas.desplazados(N - i);
+        System.arraycopy(keys, i, keys, i + 1, N - i);
+        System.arraycopy(vals, i, vals, i + 1, N - i);
+        keys[i] = key;
+        vals[i] = val;
+        if (nodos != null) {
+            System.arraycopy(nodos, i, nodos, i + 1, N - i);
+            nodos[i] = porFrecuencia.agregar(key, val);
+        }
+        N++;
+        contabilizar(val, 1);
+    }
+
+    /**
+     * Elimina la clave especificada y su frecuencia.
+     *
+     * @param key la clave a eliminar
+     */
+    public void delete(Key key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (isEmpty()) return;
+            int i = buscar(key);
+            if (i >= N || keys[i].compareTo(key) != 0) return;
+            eliminarEn(i);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
+        }
+    }
+
+    /**
+     * Elimina el elemento de la posición i desplazando los posteriores.
+     */
+    private void eliminarEn(int i) {
+        contabilizar(vals[i], -1);
+        if (Metricas.ACTIVAS) Metricas.desplazados(N - i - 1);
+        System.arraycopy(keys, i + 1, keys, i, N - i - 1);
+        System.arraycopy(vals, i + 1, vals, i, N - i - 1);
+        if (nodos != null) {
+            porFrecuencia.quitar(nodos[i]);
+            System.arraycopy(nodos, i + 1, nodos, i, N - i - 1);
+            nodos[N - 1] = null;
+        }
+        N--;
+        keys[N] = null;
+        vals[N] = 0;
+        if (N > 0 && N == keys.length / 4) resize(keys.length / 2);
+    }
+
+    /**
+     * Elimina y retorna la clave mínima.
+     *
+     * @return la clave mínima eliminada, o null si la tabla está vacía
+     */
+    public Key deletemin() {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (isEmpty()) return null;
+            Key min = keys[0];
+            eliminarEn(0);
+            return min;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
+        }
+    }
+
+    /**
+     * Elimina y retorna la clave máxima.
+     *
+     * @return la clave máxima eliminada, o null si la tabla está vacía
+     */
+    public Key deletemax() {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (isEmpty()) return null;
+            Key max = keys[N - 1];
+            eliminarEn(N - 1);
+            return max;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.DELETE, inicio);
+        }
+    }
+
+    /**
+     * Retorna la clave mínima.
+     *
+     * @return la clave mínima, o null si la tabla está vacía
+     */
+    @Override
+    public Key min() {
+        return isEmpty() ? null : keys[0];
+    }
+
+    /**
+     * Retorna la clave máxima.
+     *
+     * @return la clave máxima, o null si la tabla está vacía
+     */
+    @Override
+    public Key max() {
+        return isEmpty() ? null : keys[N - 1];
+    }
+
+    /**
+     * Retorna la clave en la posición k (indexada desde 0).
+     *
+     * @param k posición de la clave deseada
+     * @return la clave en la posición k
+     */
+    @Override
+    public Key select(int k) {
+        return keys[k];
+    }
+
+    /**
+     * Retorna la clave más grande menor o igual a la clave dada.
+     *
+     * @param key la clave de referencia
+     * @return la clave floor, o null si no existe ninguna clave menor o igual
+     */
+    @Override
+    public Key floor(Key key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null || isEmpty()) return null;
+            int i = buscar(key);
+            if (i < N && keys[i].compareTo(key) == 0) return keys[i];
+            if (i == 0) return null;
+            return keys[i - 1];
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.FLOOR, inicio);
+        }
+    }
+
+    /**
+     * Retorna la clave más pequeña mayor o igual a la clave dada.
+     *
+     * @param key la clave de referencia
+     * @return la clave ceiling, o null si no existe ninguna clave mayor o igual
+     */
+    @Override
+    public Key ceiling(Key key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null) return null;
+            int i = buscar(key);
+            return i < N ? keys[i] : null;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.CEILING, inicio);
+        }
+    }
+
+    /**
+     * Retorna todas las claves en el rango [lo, hi] en orden ascendente.
+     *
+     * Es una vista perezosa: ambos límites se calculan una sola vez y las
+     * claves no se copian. La frecuencia de cada una se obtiene con
+     * frecuenciaEn(cursor.posicion()).
+     *
+     * @param lo límite inferior del rango (inclusivo)
+     * @param hi límite superior del rango (inclusivo)
+     * @return una vista con todas las claves en el rango especificado
+     */
+    @Override
+    public Rango<Key> keys(Key lo, Key hi) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int fin = buscar(hi);
+            if (fin < N && keys[fin].compareTo(hi) == 0) fin++;
+            return new Rango<Key>(buscar(lo), fin, this::select);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.KEYS, inicio);
+        }
+    }
+
+    /**
+     * Suma (signo = 1) o resta (signo = -1) una clave con la frecuencia dada a los agregados.
+     */
+    private void contabilizar(int frecuencia, int signo) {
+        totalApariciones += (long) signo * frecuencia;
+        if (frecuencia == 1) hapax += signo;
+        else if (frecuencia > 1) repetidas += signo;
+        if (frecuencia < 1) return;
+        if (frecuencia < HISTOGRAMA_DENSO) {
+            histograma[frecuencia] += signo;
+        } else {
+            histogramaAlto.sumar(frecuencia, signo);
+        }
+    }
+
+    /**
+     * Recalcula todos los agregados recorriendo la tabla; se usa tras construir().
+     */
+    private void recalcularAgregados() {
+        totalApariciones = 0;
+        hapax = 0;
+        repetidas = 0;
+        histograma = new int[HISTOGRAMA_DENSO];
+        histogramaAlto = new ContadorLargos(16);
+        for (int i = 0; i < N; i++) contabilizar(vals[i], 1);
+    }
+
+    /**
+     * Retorna la suma de las frecuencias de todas las claves.
+     *
+     * @return total de apariciones (tokens)
+     */
+    @Override
+    public long totalApariciones() {
+        return totalApariciones;
+    }
+
+    /**
+     * Retorna el número de claves que aparecen exactamente una vez (hapax legomena).
+     *
+     * @return número de claves con frecuencia 1
+     */
+    @Override
+    public int hapax() {
+        return hapax;
+    }
+
+    /**
+     * Retorna el número de claves que aparecen más de una vez.
+     *
+     * @return número de claves con frecuencia mayor que 1
+     */
+    @Override
+    public int repetidas() {
+        return repetidas;
+    }
+
+    /**
+     * Retorna cuántas claves tienen exactamente una frecuencia dada.
+     *
+     * @param frecuencia la frecuencia consultada (mayor o igual que 1)
+     * @return número de claves con esa frecuencia
+     */
+    @Override
+    public int clavesConFrecuencia(int frecuencia) {
+        if (frecuencia < 1) return 0;
+        if (frecuencia < HISTOGRAMA_DENSO) return histograma[frecuencia];
+        return histogramaAlto.get(frecuencia);
+    }
+
+    /**
+     * Retorna el índice por frecuencia de la tabla, construyéndolo la primera vez.
+     *
+     * A partir de entonces la tabla lo actualiza en cada put, merge, delete,
+     * deletemin, deletemax y construir, de modo que siempre está sincronizado.
+     *
+     * @return el índice por frecuencia de esta tabla
+     */
+    public IndiceFrecuencias<Key> indicePorFrecuencia() {
+        if (porFrecuencia == null) {
+            porFrecuencia = new IndiceFrecuencias<>();
+            llenarIndice();
+        }
+        return porFrecuencia;
+    }
+
+    /**
+     * Agrega todas las claves de la tabla al índice por frecuencia, que debe estar vacío.
+     */
+    private void llenarIndice() {
+        nodos = (IndiceFrecuencias.Nodo<Key>[]) new IndiceFrecuencias.Nodo[keys.length];
+        for (int i = 0; i < N; i++) nodos[i] = porFrecuencia.agregar(keys[i], vals[i]);
+    }
+
+    /**
+     * Reemplaza el contenido de la tabla con pares clave-frecuencia no ordenados.
+     *
+     * Ordena una copia de los pares con un único mergesort, O(N log N).
+     * A diferencia de TablaDeSimbolosOrdenada, si una clave aparece varias
+     * veces sus frecuencias se suman.
+     *
+     * @param claves claves en cualquier orden
+     * @param frecuencias frecuencia correspondiente a cada clave
+     * @param n número de pares a tomar de los arrays
+     */
+    public void construir(Key[] claves, int[] frecuencias, int n) {
+        Key[] k = (Key[]) new Comparable[n];
+        int[] v = new int[n];
+        System.arraycopy(claves, 0, k, 0, n);
+        System.arraycopy(frecuencias, 0, v, 0, n);
+        ordenar(k, v, (Key[]) new Comparable[n], new int[n], 0, n - 1);
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m > 0 && k[m - 1].compareTo(k[i]) == 0) {
+                v[m - 1] += v[i];
+            } else {
+                k[m] = k[i];
+                v[m] = v[i];
+                m++;
+            }
+        }
+        for (int i = m; i < n; i++) k[i] = null;
+        keys = k;
+        vals = v;
+        N = m;
+        recalcularAgregados();
+        if (porFrecuencia != null) {
+            porFrecuencia.vaciar();
+            llenarIndice();
+        }
+    }
+
+    /**
+     * Ordena por clave los arrays paralelos k[lo..hi] y v[lo..hi] con mergesort.
+     */
+    private void ordenar(Key[] k, int[] v, Key[] auxK, int[] auxV, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        ordenar(k, v, auxK, auxV, lo, mid);
+        ordenar(k, v, auxK, auxV, mid + 1, hi);
+        if (k[mid].compareTo(k[mid + 1]) <= 0) return;
+        System.arraycopy(k, lo, auxK, lo, hi - lo + 1);
+        System.arraycopy(v, lo, auxV, lo, hi - lo + 1);
+        int i = lo, j = mid + 1;
+        for (int x = lo; x <= hi; x++) {
+            if (i > mid)                                 { k[x] = auxK[j]; v[x] = auxV[j++]; }
+            else if (j > hi)                             { k[x] = auxK[i]; v[x] = auxV[i++]; }
+            else if (auxK[j].compareTo(auxK[i]) < 0)     { k[x] = auxK[j]; v[x] = auxV[j++]; }
+            else                                         { k[x] = auxK[i]; v[x] = auxV[i++]; }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package TablaOrdenada;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tabla de frecuencias congelada que guarda todas las claves en un solo arreglo de bytes.
+ *
+ * Después de la normalización cada clave es ASCII [a-z], pero una tabla de
+ * String guarda por clave una referencia, un objeto String (cabecera, hash,
+ * coder) y su propio byte[] con otra cabecera: unos 50 bytes fijos más la
+ * longitud. Aquí las claves ocupan un único byte[] (la arena), una tras otra
+ * y en orden, y un int[] de desplazamientos indica dónde empieza cada una:
+ * por clave quedan su longitud más 4 bytes de desplazamiento y 4 de
+ * frecuencia. Las búsquedas binarias comparan directamente los bytes de la
+ * arena, que además quedan contiguos en memoria, y solo se crea un String
+ * cuando el llamador pide una clave con select(), min(), floor()...
+ *
+ * Es la misma disposición que la instantánea en disco, pero en el heap.
+ * Admite claves con caracteres hasta U+00FF, que caben en un byte (Latin-1)
+ * y se comparan sin signo para respetar el orden de String.compareTo.
+ * No se puede modificar; aTabla() da una copia modificable.
+ *
+ * @author cvaro
+ */
+public class TablaFrecuenciasCompacta implements ConsultaFrecuencias<String> {
+
+    /** Claves una tras otra, en orden, un byte por carácter */
+    private final byte[] arena;
+
+    /** Inicio de cada clave en la arena; offsets[N] es el tamaño de la arena */
+    private final int[] offsets;
+
+    /** Frecuencia de cada clave */
+    private final int[] frecuencias;
+
+    /** Número de claves */
+    private final int N;
+
+    /** Agregados del corpus, calculados al construir */
+    private final long totalApariciones;
+    private final int hapax;
+    private final int repetidas;
+
+    /** Número de claves por frecuencia, armado la primera vez que se consulta */
+    private volatile HashMap<Integer, Integer> histograma;
+
+    /**
+     * Copia el contenido de una tabla a la representación compacta.
+     *
+     * @param tabla tabla de origen, cuyas claves ya están ordenadas
+     * @throws IllegalArgumentException si alguna clave tiene un carácter mayor que U+00FF
+     */
+    public TablaFrecuenciasCompacta(ConsultaFrecuencias<String> tabla) {
+        N = tabla.size();
+        offsets = new int[N + 1];
+        frecuencias = new int[N];
+        String[] claves = new String[N];
+        long bytes = 0;
+        for (int i = 0; i < N; i++) {
+            claves[i] = tabla.select(i);
+            frecuencias[i] = tabla.frecuenciaEn(i);
+            bytes += claves[i].length();
+        }
+        if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("las claves no caben en un arreglo");
+        arena = new byte[(int) bytes];
+        int p = 0;
+        for (int i = 0; i < N; i++) {
+            offsets[i] = p;
+            String clave = claves[i];
+            for (int j = 0; j < clave.length(); j++) {
+                char c = clave.charAt(j);
+                if (c > 0xFF) throw new IllegalArgumentException("la clave " + clave + " no cabe en un byte por caracter");
+                arena[p++] = (byte) c;
+            }
+        }
+        offsets[N] = p;
+        totalApariciones = tabla.totalApariciones();
+        hapax = tabla.hapax();
+        repetidas = tabla.repetidas();
+    }
+
+    /**
+     * Compara una clave con la clave k de la tabla, con el mismo orden que String.compareTo.
+     */
+    private int comparar(String key, int k) {
+        int inicio = offsets[k];
+        int longitud = offsets[k + 1] - inicio;
+        int n = Math.min(key.length(), longitud);
+        for (int i = 0; i < n; i++) {
+            int cmp = key.charAt(i) - (arena[inicio + i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return key.length() - longitud;
+    }
+
+    /**
+     * Retorna los bytes que ocupan la arena y los arreglos de desplazamientos y frecuencias.
+     *
+     * @return tamaño aproximado de los datos en el heap
+     */
+    public long bytesEnMemoria() {
+        return arena.length + 4L * offsets.length + 4L * frecuencias.length;
+    }
+
+    @Override
+    public int size() {
+        return N;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    @Override
+    public int rank(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        int i = buscar(key);
+        if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.RANK, inicio);
+        return i;
+    }
+
+    /**
+     * Búsqueda binaria de rank(); las demás operaciones la usan directamente
+     * para que sus latencias no se cuenten también como RANK.
+     */
+    private int buscar(String key) {
+        int lo = 0, hi = N - 1, comparaciones = 0;
+        try {
+            while (lo <= hi) {
+                int mid = lo + (hi - lo) / 2;
+                int cmp = comparar(key, mid);
+                comparaciones++;
+                if (cmp < 0) hi = mid - 1;
+                else if (cmp > 0) lo = mid + 1;
+                else return mid;
+            }
+            return lo;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.comparaciones(comparaciones);
+        }
+    }
+
+    @Override
+    public int get(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int i = buscar(key);
+            if (i < N && comparar(key, i) == 0) return frecuencias[i];
+            return 0;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.GET, inicio);
+        }
+    }
+
+    @Override
+    public int frecuenciaEn(int k) {
+        return frecuencias[k];
+    }
+
+    @Override
+    public boolean contains(String key) {
+        if (key == null) return false;
+        int i = buscar(key);
+        return i < N && comparar(key, i) == 0;
+    }
+
+    @Override
+    public long totalApariciones() {
+        return totalApariciones;
+    }
+
+    @Override
+    public int hapax() {
+        return hapax;
+    }
+
+    @Override
+    public int repetidas() {
+        return repetidas;
+    }
+
+    /**
+     * Con frecuencia mayor que 1, arma el histograma de frecuencias la primera vez que se llama.
+     */
+    @Override
+    public int clavesConFrecuencia(int frecuencia) {
+        if (frecuencia == 1) return hapax;
+        if (frecuencia < 1) return 0;
+        HashMap<Integer, Integer> conteo = histograma;
+        if (conteo == null) {
+            conteo = new HashMap<>();
+            for (int i = 0; i < N; i++)
+                if (frecuencias[i] > 1) conteo.merge(frecuencias[i], 1, Integer::sum);
+            histograma = conteo;
+        }
+        return conteo.getOrDefault(frecuencia, 0);
+    }
+
+    /**
+     * Retorna la clave en la posición k; es el único punto donde se crea un String.
+     */
+    @Override
+    public String select(int k) {
+        return new String(arena, offsets[k], offsets[k + 1] - offsets[k], StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String min() {
+        return isEmpty() ? null : select(0);
+    }
+
+    @Override
+    public String max() {
+        return isEmpty() ? null : select(N - 1);
+    }
+
+    @Override
+    public String floor(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null || isEmpty()) return null;
+            int i = buscar(key);
+            if (i < N && comparar(key, i) == 0) return select(i);
+            return i == 0 ? null : select(i - 1);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.FLOOR, inicio);
+        }
+    }
+
+    @Override
+    public String ceiling(String key) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            if (key == null) return null;
+            int i = buscar(key);
+            return i < N ? select(i) : null;
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.CEILING, inicio);
+        }
+    }
+
+    /**
+     * Retorna las claves del rango [lo, hi]; la vista crea cada String con select() al recorrerla.
+     */
+    @Override
+    public Rango<String> keys(String lo, String hi) {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        try {
+            int fin = buscar(hi);
+            if (fin < N && comparar(hi, fin) == 0) fin++;
+            return new Rango<String>(buscar(lo), fin, this::select);
+        } finally {
+            if (Metricas.ACTIVAS) Metricas.medir(Metricas.Operacion.KEYS, inicio);
+        }
+    }
+
+    /**
+     * Copia la tabla a una TablaFrecuencias modificable.
+     *
+     * Las claves ya vienen ordenadas, por lo que construir() no reordena nada.
+     *
+     * @return una tabla en memoria con el mismo contenido
+     */
+    public TablaFrecuencias<String> aTabla() {
+        String[] claves = new String[N];
+        for (int i = 0; i < N; i++) claves[i] = select(i);
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>(0);
+        tabla.construir(claves, frecuencias, N);
+        return tabla;
+    }
+}
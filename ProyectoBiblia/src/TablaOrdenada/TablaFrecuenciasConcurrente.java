@@ -0,0 +1,375 @@
+package TablaOrdenada;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Tabla de frecuencias que admite lectores concurrentes mientras se modifica.
+ *
+ * Usa copia en escritura: el contenido vigente es una Version inmutable
+ * publicada en un campo volatile. Los lectores solo leen esa referencia,
+ * nunca esperan un lock y siempre ven una tabla consistente. Los escritores
+ * se serializan con un ReentrantLock; cada uno copia la versión vigente,
+ * aplica sus cambios a la copia y la publica de una sola vez con un número
+ * de versión mayor.
+ *
+ * Cada modificación individual copia la tabla completa, O(N); para cargas o
+ * cambios masivos conviene agruparlos con modificar(), que copia y publica
+ * una única vez, o construir la tabla aparte y entregarla con publicar().
+ * publicar() acepta cualquier ConsultaFrecuencias, de modo que un corpus
+ * recargado puede publicarse como TablaFrecuenciasCompacta o como
+ * InstantaneaFrecuencias sin pasar por una tabla de Strings; la primera
+ * modificación posterior la copia a una TablaFrecuencias.
+ *
+ * Los métodos de consulta de esta clase leen la versión vigente en cada
+ * llamada; quien necesite varias consultas coherentes entre sí (por ejemplo,
+ * size() y luego select()) debe tomar instantanea() y consultar sobre ella.
+ *
+ * @param <Key> tipo de las claves, debe implementar Comparable
+ * @author cvaro
+ */
+public class TablaFrecuenciasConcurrente<Key extends Comparable<Key>> implements ConsultaFrecuencias<Key> {
+
+    /**
+     * Contenido de la tabla en un momento dado; nunca cambia después de publicarse.
+     *
+     * @param <Key> tipo de las claves
+     */
+    public static final class Version<Key extends Comparable<Key>> implements ConsultaFrecuencias<Key> {
+
+        /** Número de la versión; crece en uno con cada publicación */
+        private final long numero;
+
+        /** Tabla que nadie vuelve a modificar */
+        private final ConsultaFrecuencias<Key> tabla;
+
+        private Version(long numero, ConsultaFrecuencias<Key> tabla) {
+            this.numero = numero;
+            this.tabla = tabla;
+        }
+
+        /**
+         * Retorna el número de esta versión.
+         *
+         * @return número de versión
+         */
+        public long numero() {
+            return numero;
+        }
+
+        @Override
+        public int size() {
+            return tabla.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return tabla.isEmpty();
+        }
+
+        @Override
+        public int get(Key key) {
+            return tabla.get(key);
+        }
+
+        @Override
+        public int frecuenciaEn(int k) {
+            return tabla.frecuenciaEn(k);
+        }
+
+        @Override
+        public long totalApariciones() {
+            return tabla.totalApariciones();
+        }
+
+        @Override
+        public int hapax() {
+            return tabla.hapax();
+        }
+
+        @Override
+        public int repetidas() {
+            return tabla.repetidas();
+        }
+
+        @Override
+        public int clavesConFrecuencia(int frecuencia) {
+            return tabla.clavesConFrecuencia(frecuencia);
+        }
+
+        @Override
+        public boolean contains(Key key) {
+            return tabla.contains(key);
+        }
+
+        @Override
+        public int rank(Key key) {
+            return tabla.rank(key);
+        }
+
+        @Override
+        public Key select(int k) {
+            return tabla.select(k);
+        }
+
+        @Override
+        public Key min() {
+            return tabla.min();
+        }
+
+        @Override
+        public Key max() {
+            return tabla.max();
+        }
+
+        @Override
+        public Key floor(Key key) {
+            return tabla.floor(key);
+        }
+
+        @Override
+        public Key ceiling(Key key) {
+            return tabla.ceiling(key);
+        }
+
+        @Override
+        public Rango<Key> keys(Key lo, Key hi) {
+            return tabla.keys(lo, hi);
+        }
+    }
+
+    /** Versión vigente; los lectores solo leen este campo */
+    private volatile Version<Key> actual;
+
+    /** Serializa a los escritores */
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    /**
+     * Construye una tabla concurrente vacía.
+     */
+    public TablaFrecuenciasConcurrente() {
+        this(new TablaFrecuencias<Key>(0));
+    }
+
+    /**
+     * Construye una tabla concurrente cuya primera versión es la tabla dada.
+     *
+     * @param inicial contenido inicial; la tabla pasa a ser de esta clase y no debe modificarse desde fuera
+     */
+    public TablaFrecuenciasConcurrente(ConsultaFrecuencias<Key> inicial) {
+        actual = new Version<>(0, inicial);
+    }
+
+    /**
+     * Retorna la versión vigente, que no cambiará aunque la tabla se modifique después.
+     *
+     * @return una vista inmutable y consistente de la tabla
+     */
+    public Version<Key> instantanea() {
+        return actual;
+    }
+
+    /**
+     * Retorna el número de la versión vigente.
+     *
+     * @return número de versión
+     */
+    public long version() {
+        return actual.numero;
+    }
+
+    /**
+     * Aplica un conjunto de cambios sobre una copia de la tabla y la publica.
+     *
+     * Los lectores ven todos los cambios a la vez o ninguno. Si los cambios
+     * lanzan una excepción no se publica nada.
+     *
+     * @param cambios función que modifica la copia y retorna un resultado
+     * @return el resultado de la función
+     */
+    public <R> R modificar(Function<TablaFrecuencias<Key>, R> cambios) {
+        escritura.lock();
+        try {
+            Version<Key> vigente = actual;
+            TablaFrecuencias<Key> copia = vigente.tabla instanceof TablaFrecuencias<Key> tabla
+                    ? tabla.copia()
+                    : MezclaTablas.combinar(List.of(vigente.tabla));
+            R resultado = cambios.apply(copia);
+            actual = new Version<>(vigente.numero + 1, copia);
+            return resultado;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza todo el contenido por una tabla construida aparte.
+     *
+     * Pensado para cargar un corpus nuevo sin detener las consultas:
+     * los lectores siguen usando la versión anterior hasta este momento.
+     *
+     * @param nueva tabla a publicar; no debe modificarse después
+     */
+    public void publicar(ConsultaFrecuencias<Key> nueva) {
+        escritura.lock();
+        try {
+            actual = new Version<>(actual.numero + 1, nueva);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Inserta una clave con su frecuencia o reemplaza la existente.
+     *
+     * @param key la clave
+     * @param val la frecuencia
+     */
+    public void put(Key key, int val) {
+        modificar(t -> {
+            t.put(key, val);
+            return null;
+        });
+    }
+
+    /**
+     * Suma una cantidad a la frecuencia de una clave, insertándola si no existe.
+     *
+     * @param key la clave
+     * @param delta cantidad a sumar
+     * @return la nueva frecuencia
+     */
+    public int merge(Key key, int delta) {
+        return modificar(t -> t.merge(key, delta));
+    }
+
+    /**
+     * Incrementa en uno la frecuencia de una clave.
+     *
+     * @param key la clave
+     * @return la nueva frecuencia
+     */
+    public int increment(Key key) {
+        return merge(key, 1);
+    }
+
+    /**
+     * Elimina una clave.
+     *
+     * @param key la clave a eliminar
+     */
+    public void delete(Key key) {
+        modificar(t -> {
+            t.delete(key);
+            return null;
+        });
+    }
+
+    /**
+     * Elimina y retorna la clave mínima.
+     *
+     * @return la clave eliminada, o null si la tabla está vacía
+     */
+    public Key deletemin() {
+        return modificar(TablaFrecuencias::deletemin);
+    }
+
+    /**
+     * Elimina y retorna la clave máxima.
+     *
+     * @return la clave eliminada, o null si la tabla está vacía
+     */
+    public Key deletemax() {
+        return modificar(TablaFrecuencias::deletemax);
+    }
+
+    @Override
+    public int size() {
+        return actual.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return actual.isEmpty();
+    }
+
+    @Override
+    public int get(Key key) {
+        return actual.get(key);
+    }
+
+    @Override
+    public int frecuenciaEn(int k) {
+        return actual.frecuenciaEn(k);
+    }
+
+    @Override
+    public long totalApariciones() {
+        return actual.totalApariciones();
+    }
+
+    @Override
+    public int hapax() {
+        return actual.hapax();
+    }
+
+    @Override
+    public int repetidas() {
+        return actual.repetidas();
+    }
+
+    @Override
+    public int clavesConFrecuencia(int frecuencia) {
+        return actual.clavesConFrecuencia(frecuencia);
+    }
+
+    @Override
+    public boolean contains(Key key) {
+        return actual.contains(key);
+    }
+
+    @Override
+    public int rank(Key key) {
+        return actual.rank(key);
+    }
+
+    /**
+     * Retorna la clave en la posición k de la versión vigente, que puede no ser la del último size() o rank().
+     */
+    @Override
+    public Key select(int k) {
+        return actual.select(k);
+    }
+
+    @Override
+    public Key min() {
+        return actual.min();
+    }
+
+    @Override
+    public Key max() {
+        return actual.max();
+    }
+
+    @Override
+    public Key floor(Key key) {
+        return actual.floor(key);
+    }
+
+    @Override
+    public Key ceiling(Key key) {
+        return actual.ceiling(key);
+    }
+
+    /**
+     * Retorna las claves del rango [lo, hi] de la versión vigente.
+     *
+     * La vista queda ligada a esa versión: recorrerla es seguro aunque
+     * se publiquen versiones nuevas mientras tanto.
+     */
+    @Override
+    public Rango<Key> keys(Key lo, Key hi) {
+        return actual.keys(lo, hi);
+    }
+}
@@ -0,0 +1,417 @@
+package TablaOrdenada;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tabla ordenada de frecuencias de n-gramas (secuencias de n palabras seguidas).
+ *
+ * Cada palabra del vocabulario se identifica por su posición en el vocabulario
+ * ordenado, un entero de 21 bits, y cada n-grama se empaqueta en un long con
+ * la primera palabra en los bits más altos: hasta tres palabras caben en 63
+ * bits. Así la tabla es un long[] de claves ordenadas y un int[] paralelo de
+ * frecuencias, 12 bytes por n-grama, en lugar de un String concatenado por
+ * cada uno.
+ *
+ * Como las palabras normalizadas solo tienen letras, el orden de los long
+ * coincide con el de los textos "palabra palabra ..." separados por un
+ * espacio (que es menor que cualquier letra). Por eso la tabla implementa
+ * ConsultaFrecuencias&lt;String&gt; con esos textos como claves y sirve para
+ * todo lo que ya funciona sobre una tabla de palabras: rank, select, rangos,
+ * el índice de prefijos, las consultas por lotes... Los n-gramas de una
+ * palabra dada son el rango que va de "palabra " a "palabra!". Los textos
+ * solo se crean cuando el llamador pide una clave; por eso, para los más
+ * frecuentes conviene masFrecuentes(), que solo mira las frecuencias, en
+ * lugar de un IndiceFrecuencias, que guarda el texto de cada n-grama.
+ *
+ * @author cvaro
+ */
+public class TablaNGramas implements ConsultaFrecuencias<String> {
+
+    /** Bits del identificador de cada palabra dentro de una clave */
+    public static final int BITS_POR_PALABRA = 21;
+
+    /** Mayor n admitido: tres palabras de 21 bits ocupan 63 bits */
+    public static final int MAXIMO_N = 3;
+
+    /** Separador de las palabras en el texto de un n-grama */
+    public static final char SEPARADOR = ' ';
+
+    private static final long MASCARA = (1L << BITS_POR_PALABRA) - 1;
+
+    /** Bits por pasada del ordenamiento por dígitos */
+    private static final int BITS_DIGITO = 11;
+
+    /** Número de palabras de cada n-grama */
+    private final int n;
+
+    /** Vocabulario ordenado; el identificador de una palabra es su posición */
+    private final String[] palabras;
+
+    /** N-gramas empaquetados, en orden */
+    private final long[] claves;
+
+    /** Frecuencia de cada n-grama */
+    private final int[] frecuencias;
+
+    /** Número de n-gramas distintos */
+    private final int N;
+
+    /** Agregados, calculados al construir */
+    private long totalApariciones;
+    private int hapax;
+    private int repetidas;
+
+    /** Número de n-gramas por frecuencia, armado la primera vez que se consulta */
+    private volatile HashMap<Integer, Integer> histograma;
+
+    /**
+     * Construye la tabla a partir de un conteo hecho con identificadores provisionales.
+     *
+     * Durante el conteo cada palabra nueva recibe el siguiente identificador
+     * (1, 2, 3...), que es el que va empaquetado en las claves del contador.
+     * Aquí se ordena el vocabulario, se traduce cada identificador a la
+     * posición de su palabra y se ordenan las claves con un ordenamiento por
+     * dígitos de 11 bits, lineal en el número de n-gramas.
+     *
+     * @param n palabras por n-grama, de 1 a MAXIMO_N
+     * @param palabrasPorId palabras distintas; la de identificador i está en la posición i - 1
+     * @param contador conteo de cada n-grama empaquetado con los identificadores provisionales
+     * @throws IllegalArgumentException si n está fuera de rango o hay demasiadas palabras
+     */
+    public TablaNGramas(int n, List<String> palabrasPorId, ContadorLargos contador) {
+        if (n < 1 || n > MAXIMO_N) throw new IllegalArgumentException("n debe estar entre 1 y " + MAXIMO_N);
+        if (palabrasPorId.size() > MASCARA) throw new IllegalArgumentException("demasiadas palabras distintas para " + BITS_POR_PALABRA + " bits");
+        this.n = n;
+        palabras = palabrasPorId.toArray(new String[0]);
+        Arrays.sort(palabras);
+        int[] posicion = new int[palabras.length + 1];
+        for (int id = 1; id <= palabras.length; id++)
+            posicion[id] = Arrays.binarySearch(palabras, palabrasPorId.get(id - 1));
+
+        N = contador.size();
+        claves = new long[N];
+        frecuencias = new int[N];
+        contador.volcar(claves, frecuencias);
+        for (int i = 0; i < N; i++) {
+            long clave = 0;
+            for (int j = n - 1; j >= 0; j--)
+                clave = (clave << BITS_POR_PALABRA) | posicion[(int) ((claves[i] >>> (BITS_POR_PALABRA * j)) & MASCARA)];
+            claves[i] = clave;
+        }
+        ordenar(claves, frecuencias, BITS_POR_PALABRA * n);
+        for (int f : frecuencias) {
+            totalApariciones += f;
+            if (f == 1) hapax++;
+            else if (f > 1) repetidas++;
+        }
+    }
+
+    /**
+     * Ordena claves (con sus frecuencias) por dígitos de BITS_DIGITO bits,
+     * del menos al más significativo; cada pasada es estable y O(N).
+     */
+    private static void ordenar(long[] claves, int[] frecuencias, int bits) {
+        int m = claves.length;
+        long[] auxClaves = new long[m];
+        int[] auxFrecuencias = new int[m];
+        int[] conteo = new int[(1 << BITS_DIGITO) + 1];
+        for (int desplazamiento = 0; desplazamiento < bits; desplazamiento += BITS_DIGITO) {
+            Arrays.fill(conteo, 0);
+            for (long c : claves) conteo[(int) ((c >>> desplazamiento) & ((1 << BITS_DIGITO) - 1)) + 1]++;
+            for (int d = 0; d < (1 << BITS_DIGITO); d++) conteo[d + 1] += conteo[d];
+            for (int i = 0; i < m; i++) {
+                int d = (int) ((claves[i] >>> desplazamiento) & ((1 << BITS_DIGITO) - 1));
+                int destino = conteo[d]++;
+                auxClaves[destino] = claves[i];
+                auxFrecuencias[destino] = frecuencias[i];
+            }
+            System.arraycopy(auxClaves, 0, claves, 0, m);
+            System.arraycopy(auxFrecuencias, 0, frecuencias, 0, m);
+        }
+    }
+
+    /**
+     * Empaqueta el texto de un n-grama.
+     *
+     * @return la clave, o -1 si el texto no tiene exactamente n palabras del vocabulario
+     */
+    private long empaquetar(String texto) {
+        long clave = 0;
+        int leidas = 0;
+        int inicio = 0;
+        while (true) {
+            int fin = texto.indexOf(SEPARADOR, inicio);
+            if (fin < 0) fin = texto.length();
+            int id = Arrays.binarySearch(palabras, texto.substring(inicio, fin));
+            if (id < 0 || ++leidas > n) return -1;
+            clave = (clave << BITS_POR_PALABRA) | id;
+            if (fin == texto.length()) break;
+            inicio = fin + 1;
+        }
+        return leidas == n ? clave : -1;
+    }
+
+    /**
+     * Compara un texto con el n-grama k, con el mismo orden que String.compareTo
+     * sobre su texto, pero sin construirlo.
+     */
+    private int comparar(String texto, int k) {
+        int p = 0;
+        for (int j = n - 1; j >= 0; j--) {
+            if (j < n - 1) {
+                if (p == texto.length()) return -1;
+                int cmp = texto.charAt(p++) - SEPARADOR;
+                if (cmp != 0) return cmp;
+            }
+            String palabra = palabras[(int) ((claves[k] >>> (BITS_POR_PALABRA * j)) & MASCARA)];
+            for (int i = 0; i < palabra.length(); i++) {
+                if (p == texto.length()) return -1;
+                int cmp = texto.charAt(p++) - palabra.charAt(i);
+                if (cmp != 0) return cmp;
+            }
+        }
+        return p == texto.length() ? 0 : 1;
+    }
+
+    /**
+     * Retorna el número de palabras de cada n-grama.
+     *
+     * @return n
+     */
+    public int n() {
+        return n;
+    }
+
+    /**
+     * Retorna el número de palabras distintas del vocabulario.
+     *
+     * @return tamaño del vocabulario
+     */
+    public int vocabulario() {
+        return palabras.length;
+    }
+
+    @Override
+    public int size() {
+        return N;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    /**
+     * Si el texto son n palabras del vocabulario, busca directamente su clave
+     * empaquetada; si no, hace la búsqueda binaria comparando textos.
+     */
+    @Override
+    public int rank(String key) {
+        long clave = empaquetar(key);
+        if (clave >= 0) {
+            int i = Arrays.binarySearch(claves, clave);
+            return i >= 0 ? i : -(i + 1);
+        }
+        int lo = 0, hi = N - 1;
+        while (lo <= hi) {
+            int mid = lo + (hi - lo) / 2;
+            int cmp = comparar(key, mid);
+            if (cmp < 0) hi = mid - 1;
+            else if (cmp > 0) lo = mid + 1;
+            else return mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Posición del n-grama con ese texto, o -1 si no está.
+     */
+    private int posicion(String key) {
+        if (key == null) return -1;
+        long clave = empaquetar(key);
+        if (clave < 0) return -1;
+        int i = Arrays.binarySearch(claves, clave);
+        return i >= 0 ? i : -1;
+    }
+
+    @Override
+    public int get(String key) {
+        int i = posicion(key);
+        return i < 0 ? 0 : frecuencias[i];
+    }
+
+    @Override
+    public int frecuenciaEn(int k) {
+        return frecuencias[k];
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return posicion(key) >= 0;
+    }
+
+    @Override
+    public long totalApariciones() {
+        return totalApariciones;
+    }
+
+    @Override
+    public int hapax() {
+        return hapax;
+    }
+
+    @Override
+    public int repetidas() {
+        return repetidas;
+    }
+
+    @Override
+    public int clavesConFrecuencia(int frecuencia) {
+        if (frecuencia == 1) return hapax;
+        if (frecuencia < 1) return 0;
+        HashMap<Integer, Integer> conteo = histograma;
+        if (conteo == null) {
+            conteo = new HashMap<>();
+            for (int f : frecuencias)
+                if (f > 1) conteo.merge(f, 1, Integer::sum);
+            histograma = conteo;
+        }
+        return conteo.getOrDefault(frecuencia, 0);
+    }
+
+    /**
+     * Arma el texto del n-grama en la posición k, con sus palabras separadas
+     * por un espacio; la tabla no guarda textos, así que cada llamada crea un String nuevo.
+     */
+    @Override
+    public String select(int k) {
+        StringBuilder texto = new StringBuilder(16 * n);
+        for (int j = n - 1; j >= 0; j--) {
+            if (j < n - 1) texto.append(SEPARADOR);
+            texto.append(palabras[(int) ((claves[k] >>> (BITS_POR_PALABRA * j)) & MASCARA)]);
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public String min() {
+        return isEmpty() ? null : select(0);
+    }
+
+    @Override
+    public String max() {
+        return isEmpty() ? null : select(N - 1);
+    }
+
+    @Override
+    public String floor(String key) {
+        if (key == null || isEmpty()) return null;
+        int i = rank(key);
+        if (i < N && comparar(key, i) == 0) return select(i);
+        return i == 0 ? null : select(i - 1);
+    }
+
+    @Override
+    public String ceiling(String key) {
+        if (key == null) return null;
+        int i = rank(key);
+        return i < N ? select(i) : null;
+    }
+
+    /**
+     * Retorna los n-gramas del rango [lo, hi]; la vista arma el texto de cada uno con select() al recorrerla.
+     */
+    @Override
+    public Rango<String> keys(String lo, String hi) {
+        int fin = rank(hi);
+        if (fin < N && comparar(hi, fin) == 0) fin++;
+        return new Rango<String>(rank(lo), fin, this::select);
+    }
+
+    /**
+     * Retorna los n-gramas que empiezan con una palabra completa dada.
+     *
+     * @param palabra la primera palabra
+     * @return vista de los n-gramas que empiezan con ella
+     */
+    public Rango<String> empiezanCon(String palabra) {
+        return new Rango<String>(rank(palabra + SEPARADOR), rank(palabra + (char) (SEPARADOR + 1)), this::select);
+    }
+
+    /**
+     * Retorna las posiciones de los k n-gramas más frecuentes de un rango de posiciones.
+     *
+     * Recorre solo el array de frecuencias con un montículo de k posiciones,
+     * O(m log k) para m posiciones, sin crear ningún texto ni copiar la tabla.
+     * A igual frecuencia va primero el n-grama menor.
+     *
+     * @param desde primera posición del rango
+     * @param hasta posición siguiente a la última del rango
+     * @param k número de n-gramas buscados
+     * @return posiciones ordenadas de mayor a menor frecuencia
+     */
+    public int[] masFrecuentes(int desde, int hasta, int k) {
+        k = Math.max(0, Math.min(k, hasta - desde));
+        int[] monticulo = new int[k];
+        int m = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (m < k) {
+                monticulo[m] = i;
+                subir(monticulo, m++);
+            } else if (k > 0 && antes(i, monticulo[0])) {
+                monticulo[0] = i;
+                bajar(monticulo, 0, m);
+            }
+        }
+        // Extraer el mínimo repetidamente deja el montículo ordenado de mayor a menor
+        for (int fin = m - 1; fin > 0; fin--) {
+            int t = monticulo[0];
+            monticulo[0] = monticulo[fin];
+            monticulo[fin] = t;
+            bajar(monticulo, 0, fin);
+        }
+        return monticulo;
+    }
+
+    /**
+     * Retorna las posiciones de los k n-gramas más frecuentes de toda la tabla.
+     *
+     * @param k número de n-gramas buscados
+     * @return posiciones ordenadas de mayor a menor frecuencia
+     */
+    public int[] masFrecuentes(int k) {
+        return masFrecuentes(0, N, k);
+    }
+
+    /**
+     * true si el n-grama a va antes que b en el orden por frecuencia descendente.
+     */
+    private boolean antes(int a, int b) {
+        return frecuencias[a] > frecuencias[b] || (frecuencias[a] == frecuencias[b] && a < b);
+    }
+
+    /** Montículo cuya raíz es la posición que va última en el orden por frecuencia */
+    private void subir(int[] monticulo, int i) {
+        while (i > 0 && antes(monticulo[(i - 1) / 2], monticulo[i])) {
+            int padre = (i - 1) / 2;
+            int t = monticulo[i];
+            monticulo[i] = monticulo[padre];
+            monticulo[padre] = t;
+            i = padre;
+        }
+    }
+
+    private void bajar(int[] monticulo, int i, int m) {
+        while (2 * i + 1 < m) {
+            int j = 2 * i + 1;
+            if (j + 1 < m && antes(monticulo[j], monticulo[j + 1])) j++;
+            if (!antes(monticulo[i], monticulo[j])) return;
+            int t = monticulo[i];
+            monticulo[i] = monticulo[j];
+            monticulo[j] = t;
+            i = j;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package Txt;
+
+import TablaOrdenada.ConsultaFrecuencias;
+import TablaOrdenada.MezclaTablas;
+import TablaOrdenada.Metricas;
+import TablaOrdenada.TablaFrecuencias;
+import TablaOrdenada.TablaFrecuenciasCompacta;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frecuencias de las palabras del texto separadas por libro, más la tabla de todo el texto.
+ *
+ * El archivo se lee una vez y LectorEstructurado.iniciosDeLibros() lo corta
+ * en los títulos de los libros. Cada libro se cuenta por separado, en un
+ * trabajador del ForkJoinPool común, sobre su propio contador y su propia
+ * tabla: no hay nada compartido entre hilos mientras se cuenta. Solo se
+ * cuentan las palabras de los versículos, así que los títulos, los
+ * encabezados "Capítulo N" y los números de versículo no suman frecuencias.
+ *
+ * Cada libro se guarda congelado en una TablaFrecuenciasCompacta, con sus
+ * claves en una sola arena de bytes, y no se guarda ninguna tabla global:
+ * global() la arma cuando se pide mezclando las tablas de los libros, que
+ * ya están ordenadas, con MezclaTablas.combinar(), sin volver a contar el
+ * texto. La frecuencia de una palabra en un libro cuesta una búsqueda
+ * binaria en la tabla de ese libro, que tiene unas pocas miles de palabras.
+ *
+ * Las tablas no se modifican después de construirlas.
+ *
+ * @author cvaro
+ */
+public class CorpusPorLibros {
+
+    /** Nombre de cada libro, en el orden del texto */
+    private final String[] libros;
+
+    /** Tabla de frecuencias de cada libro */
+    private final TablaFrecuenciasCompacta[] tablas;
+
+    private CorpusPorLibros(String[] libros, TablaFrecuenciasCompacta[] tablas) {
+        this.libros = libros;
+        this.tablas = tablas;
+    }
+
+    /**
+     * Lee un archivo y cuenta las palabras de cada libro en paralelo.
+     *
+     * @param archivo ruta del archivo de texto (UTF-8)
+     * @return las tablas de cada libro
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static CorpusPorLibros construir(String archivo) throws IOException {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        List<String> lineas = LectorEstructurado.leerLineas(archivo);
+        int[] inicios = LectorEstructurado.iniciosDeLibros(lineas);
+        String[] libros = new String[inicios.length];
+        TablaFrecuenciasCompacta[] tablas = new TablaFrecuenciasCompacta[inicios.length];
+        for (int i = 0; i < inicios.length; i++) libros[i] = lineas.get(inicios[i]).strip();
+        Arrays.parallelSetAll(tablas, i -> {
+            int hasta = i + 1 < inicios.length ? inicios[i + 1] : lineas.size();
+            return contarLibro(lineas, inicios[i], hasta);
+        });
+        CorpusPorLibros corpus = new CorpusPorLibros(libros, tablas);
+        if (Metricas.ACTIVAS) {
+            long tokens = 0;
+            for (TablaFrecuenciasCompacta tabla : tablas) tokens += tabla.totalApariciones();
+            Metricas.ingesta(Files.size(Path.of(archivo)), tokens, System.nanoTime() - inicio);
+        }
+        return corpus;
+    }
+
+    /**
+     * Cuenta las palabras de las líneas [desde, hasta) en una tabla compacta nueva.
+     */
+    private static TablaFrecuenciasCompacta contarLibro(List<String> lineas, int desde, int hasta) {
+        HashMap<String, int[]> contador = new HashMap<>();
+        LectorEstructurado.recorrer(lineas, desde, hasta, new LectorEstructurado.Visitante() {
+            @Override
+            public void libro(String nombre) {
+            }
+
+            @Override
+            public void capitulo(int numero) {
+            }
+
+            @Override
+            public void versiculo(int numero) {
+            }
+
+            @Override
+            public void palabra(String palabra, int posicion) {
+                contador.computeIfAbsent(palabra, p -> new int[1])[0]++;
+            }
+        });
+        String[] claves = new String[contador.size()];
+        int[] frecuencias = new int[contador.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> par : contador.entrySet()) {
+            claves[i] = par.getKey();
+            frecuencias[i++] = par.getValue()[0];
+        }
+        TablaFrecuencias<String> tabla = new TablaFrecuencias<>(0);
+        tabla.construir(claves, frecuencias, i);
+        return new TablaFrecuenciasCompacta(tabla);
+    }
+
+    /**
+     * Retorna el número de libros del texto.
+     *
+     * @return número de libros
+     */
+    public int numeroLibros() {
+        return libros.length;
+    }
+
+    /**
+     * Retorna el nombre de un libro, tal como aparece en su título.
+     *
+     * @param i número de libro, desde 0
+     * @return el nombre del libro
+     */
+    public String libro(int i) {
+        return libros[i];
+    }
+
+    /**
+     * Retorna la tabla de frecuencias de un libro.
+     *
+     * @param i número de libro, desde 0
+     * @return las palabras del libro con sus frecuencias
+     */
+    public ConsultaFrecuencias<String> tabla(int i) {
+        return tablas[i];
+    }
+
+    /**
+     * Arma la tabla de frecuencias de todo el texto.
+     *
+     * No se guarda: cada llamada mezcla de nuevo las tablas de los libros,
+     * en O(N log L) para N claves en L libros.
+     *
+     * @return una tabla nueva con la suma de las tablas de todos los libros
+     */
+    public TablaFrecuencias<String> global() {
+        return MezclaTablas.combinar(Arrays.asList(tablas));
+    }
+
+    /**
+     * Retorna las veces que aparece una palabra en un libro.
+     *
+     * @param i número de libro, desde 0
+     * @param palabra palabra ya normalizada
+     * @return su frecuencia en el libro, o 0 si no aparece
+     */
+    public int frecuencia(int i, String palabra) {
+        return tablas[i].get(palabra);
+    }
+}
@@ -0,0 +1,321 @@
+package Txt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import TablaOrdenada.TablaDeSimbolosOrdenada;
+
+/**
+ * Índice invertido posicional del texto, por libro, capítulo y versículo.
+ *
+ * Para cada palabra guarda una ListaPosiciones comprimida con los versículos
+ * y posiciones en que aparece. Los versículos se numeran globalmente en orden
+ * de aparición (0, 1, 2...) y unos arrays paralelos traducen ese número a su
+ * libro, capítulo y versículo.
+ *
+ * Las consultas no vuelven a leer el texto: se resuelven intersecando o uniendo
+ * las listas de apariciones, usando sus punteros de salto para avanzar.
+ * La sintaxis de consultar() es:
+ * <ul>
+ *   <li>{@code luz tinieblas} — versículos con todas las palabras (AND)</li>
+ *   <li>{@code luz OR tinieblas} — versículos con alguna de las alternativas</li>
+ *   <li>{@code "hijo del hombre"} — versículos con las palabras consecutivas</li>
+ * </ul>
+ * Las alternativas pueden combinar palabras y frases: {@code "dijo dios" luz OR noche}.
+ *
+ * @author cvaro
+ */
+public class IndicePosicional {
+
+    /** Lista de apariciones de cada palabra */
+    private final TablaDeSimbolosOrdenada<String, ListaPosiciones> listas;
+
+    /** Títulos de los libros, en orden */
+    private final String[] libros;
+
+    /** Libro (índice en libros) de cada versículo global */
+    private final int[] libroDe;
+
+    /** Número de capítulo de cada versículo global */
+    private final int[] capituloDe;
+
+    /** Número de versículo dentro de su capítulo */
+    private final int[] versiculoDe;
+
+    private IndicePosicional(TablaDeSimbolosOrdenada<String, ListaPosiciones> listas, String[] libros,
+            int[] libroDe, int[] capituloDe, int[] versiculoDe) {
+        this.listas = listas;
+        this.libros = libros;
+        this.libroDe = libroDe;
+        this.capituloDe = capituloDe;
+        this.versiculoDe = versiculoDe;
+    }
+
+    /**
+     * Construye el índice recorriendo una vez la estructura del archivo.
+     *
+     * @param archivo ruta del archivo de texto
+     * @return el índice construido
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static IndicePosicional construir(String archivo) throws IOException {
+        Acumulador acumulador = new Acumulador();
+        LectorEstructurado.recorrer(archivo, acumulador);
+        for (ListaPosiciones lista : acumulador.listas.values()) lista.cerrar();
+        TablaDeSimbolosOrdenada<String, ListaPosiciones> listas = new TablaDeSimbolosOrdenada<>();
+        listas.construir(acumulador.listas);
+        int n = acumulador.versiculos;
+        return new IndicePosicional(listas, acumulador.libros.toArray(new String[0]),
+                Arrays.copyOf(acumulador.libroDe, n), Arrays.copyOf(acumulador.capituloDe, n),
+                Arrays.copyOf(acumulador.versiculoDe, n));
+    }
+
+    /**
+     * Visitante que acumula las apariciones mientras se recorre el texto.
+     */
+    private static class Acumulador implements LectorEstructurado.Visitante {
+
+        final HashMap<String, ListaPosiciones> listas = new HashMap<>();
+        final List<String> libros = new ArrayList<>();
+        int[] libroDe = new int[1024];
+        int[] capituloDe = new int[1024];
+        int[] versiculoDe = new int[1024];
+        int versiculos;
+        int capitulo;
+
+        @Override
+        public void libro(String nombre) {
+            libros.add(nombre);
+            capitulo = 0;
+        }
+
+        @Override
+        public void capitulo(int numero) {
+            capitulo = numero;
+        }
+
+        @Override
+        public void versiculo(int numero) {
+            if (versiculos == libroDe.length) {
+                libroDe = Arrays.copyOf(libroDe, 2 * versiculos);
+                capituloDe = Arrays.copyOf(capituloDe, 2 * versiculos);
+                versiculoDe = Arrays.copyOf(versiculoDe, 2 * versiculos);
+            }
+            libroDe[versiculos] = libros.size() - 1;
+            capituloDe[versiculos] = capitulo;
+            versiculoDe[versiculos] = numero;
+            versiculos++;
+        }
+
+        @Override
+        public void palabra(String palabra, int posicion) {
+            listas.computeIfAbsent(palabra, p -> new ListaPosiciones()).agregar(versiculos - 1, posicion);
+        }
+    }
+
+    /**
+     * Retorna la lista de apariciones de una palabra.
+     *
+     * @param palabra la palabra (se normaliza antes de buscarla)
+     * @return la lista de apariciones, o null si la palabra no aparece
+     */
+    public ListaPosiciones posiciones(String palabra) {
+        return listas.get(NormalizadorPalabras.limpiar(palabra));
+    }
+
+    /**
+     * Retorna el número de versículos indexados.
+     *
+     * @return total de versículos
+     */
+    public int versiculos() {
+        return libroDe.length;
+    }
+
+    /**
+     * Retorna el número de libros indexados.
+     *
+     * @return total de libros
+     */
+    public int libros() {
+        return libros.length;
+    }
+
+    /**
+     * Retorna la referencia legible de un versículo, por ejemplo "Génesis 1:1".
+     *
+     * @param versiculo identificador global del versículo
+     * @return la referencia del versículo
+     */
+    public String referencia(int versiculo) {
+        return libros[libroDe[versiculo]] + " " + capituloDe[versiculo] + ":" + versiculoDe[versiculo];
+    }
+
+    /**
+     * Resuelve una consulta con palabras, frases entre comillas y OR.
+     *
+     * @param consulta el texto de la consulta
+     * @return los versículos que cumplen la consulta, en orden creciente
+     */
+    public int[] consultar(String consulta) {
+        int[] resultado = new int[0];
+        for (String alternativa : consulta.split("\\s+OR\\s+|\\|")) {
+            List<String> palabras = new ArrayList<>();
+            List<String[]> frases = new ArrayList<>();
+            String[] partes = alternativa.split("\"", -1);
+            for (int i = 0; i < partes.length; i++) {
+                String[] terminos = terminos(partes[i]);
+                if (i % 2 == 1 && terminos.length > 1) frases.add(terminos);
+                else palabras.addAll(Arrays.asList(terminos));
+            }
+            if (palabras.isEmpty() && frases.isEmpty()) continue;
+            resultado = unir(resultado, buscar(palabras, frases));
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna los versículos que contienen todas las palabras.
+     *
+     * @param palabras las palabras buscadas
+     * @return versículos que contienen todas, en orden creciente
+     */
+    public int[] buscarTodas(String... palabras) {
+        return buscar(Arrays.asList(palabras), List.of());
+    }
+
+    /**
+     * Retorna los versículos que contienen alguna de las palabras.
+     *
+     * @param palabras las palabras buscadas
+     * @return versículos que contienen al menos una, en orden creciente
+     */
+    public int[] buscarAlguna(String... palabras) {
+        int[] resultado = new int[0];
+        for (String palabra : palabras) resultado = unir(resultado, buscarTodas(palabra));
+        return resultado;
+    }
+
+    /**
+     * Retorna los versículos que contienen las palabras consecutivas.
+     *
+     * @param palabras las palabras de la frase, en orden
+     * @return versículos que contienen la frase, en orden creciente
+     */
+    public int[] buscarFrase(String... palabras) {
+        return buscar(List.of(), List.<String[]>of(palabras));
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas no vacías.
+     */
+    private static String[] terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String parte : texto.trim().split("\\s+")) {
+            String limpia = NormalizadorPalabras.limpiar(parte);
+            if (!limpia.isEmpty()) terminos.add(limpia);
+        }
+        return terminos.toArray(new String[0]);
+    }
+
+    /**
+     * Intersección de todas las palabras (incluidas las de las frases) con
+     * verificación de posiciones para cada frase.
+     *
+     * Conduce la intersección con la lista más corta y hace avanzar las demás
+     * con avanzarHasta(), que usa los punteros de salto.
+     *
+     * @param palabras palabras que deben aparecer en el versículo
+     * @param frases frases que deben aparecer con palabras consecutivas
+     * @return versículos que cumplen todo, en orden creciente
+     */
+    private int[] buscar(List<String> palabras, List<String[]> frases) {
+        LinkedHashSet<String> distintas = new LinkedHashSet<>();
+        for (String palabra : palabras) distintas.add(NormalizadorPalabras.limpiar(palabra));
+        for (String[] frase : frases)
+            for (String palabra : frase) distintas.add(NormalizadorPalabras.limpiar(palabra));
+        distintas.remove("");
+        if (distintas.isEmpty()) return new int[0];
+
+        List<String> orden = new ArrayList<>(distintas);
+        ListaPosiciones.Cursor[] cursores = new ListaPosiciones.Cursor[orden.size()];
+        for (int i = 0; i < cursores.length; i++) {
+            ListaPosiciones lista = listas.get(orden.get(i));
+            if (lista == null) return new int[0];
+            cursores[i] = lista.cursor();
+        }
+        Integer[] porTamanio = new Integer[cursores.length];
+        for (int i = 0; i < porTamanio.length; i++) porTamanio[i] = i;
+        Arrays.sort(porTamanio, (a, b) -> listas.get(orden.get(a)).versiculos() - listas.get(orden.get(b)).versiculos());
+
+        int[][] frasesCursor = new int[frases.size()][];
+        for (int f = 0; f < frases.size(); f++) {
+            String[] frase = terminos(String.join(" ", frases.get(f)));
+            frasesCursor[f] = new int[frase.length];
+            for (int k = 0; k < frase.length; k++) frasesCursor[f][k] = orden.indexOf(frase[k]);
+        }
+
+        int[] resultado = new int[16];
+        int n = 0;
+        ListaPosiciones.Cursor guia = cursores[porTamanio[0]];
+        boolean hay = guia.siguiente();
+        while (hay) {
+            int objetivo = guia.versiculo();
+            boolean coinciden = true;
+            for (int i = 1; i < porTamanio.length; i++) {
+                ListaPosiciones.Cursor c = cursores[porTamanio[i]];
+                if (!c.avanzarHasta(objetivo)) return Arrays.copyOf(resultado, n);
+                if (c.versiculo() > objetivo) {
+                    hay = guia.avanzarHasta(c.versiculo());
+                    coinciden = false;
+                    break;
+                }
+            }
+            if (!coinciden) continue;
+            if (contieneFrases(cursores, frasesCursor)) {
+                if (n == resultado.length) resultado = Arrays.copyOf(resultado, 2 * n);
+                resultado[n++] = objetivo;
+            }
+            hay = guia.siguiente();
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    /**
+     * Verifica, en el versículo común a todos los cursores, que cada frase
+     * aparezca con sus palabras en posiciones consecutivas.
+     */
+    private static boolean contieneFrases(ListaPosiciones.Cursor[] cursores, int[][] frases) {
+        for (int[] frase : frases) {
+            ListaPosiciones.Cursor primero = cursores[frase[0]];
+            boolean encontrada = false;
+            for (int p = 0; p < primero.cuenta() && !encontrada; p++) {
+                int inicio = primero.posiciones()[p];
+                encontrada = true;
+                for (int k = 1; k < frase.length && encontrada; k++)
+                    encontrada = cursores[frase[k]].tienePosicion(inicio + k);
+            }
+            if (!encontrada) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Une dos listas ordenadas de versículos sin repetidos.
+     */
+    private static int[] unir(int[] a, int[] b) {
+        int[] resultado = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            int siguiente;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) siguiente = a[i++];
+            else if (i >= a.length || b[j] < a[i]) siguiente = b[j++];
+            else { siguiente = a[i++]; j++; }
+            resultado[n++] = siguiente;
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+}
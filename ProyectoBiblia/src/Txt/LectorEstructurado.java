@@ -0,0 +1,220 @@
+package Txt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lector que recorre el texto reconociendo su estructura de libros, capítulos y versículos.
+ *
+ * El archivo tiene la forma:
+ * <pre>
+ *   Génesis              (título del libro, entre líneas en blanco)
+ *
+ *   Capítulo 1           (encabezado: "Capítulo N" o "Salmo N")
+ *
+ *   1 ¶ En el principio creó Dios los cielos y la tierra.
+ *   2 Y la tierra ...    (cada versículo empieza con su número;
+ *   la faz del abismo...  las líneas siguientes lo continúan)
+ * </pre>
+ *
+ * Un título de libro es una línea precedida y seguida por una línea en blanco
+ * cuya siguiente línea no vacía es un encabezado. Un versículo comienza cuando
+ * una línea empieza con el número que sigue al del versículo actual, de modo que
+ * una línea de continuación que empiece con una cifra no se confunde con él.
+ * El texto anterior al primer libro se ignora. Los números de versículo, las
+ * marcas de párrafo (¶) y las etiquetas de formato como &lt;I&gt;...&lt;/I&gt;
+ * no llegan al visitante como palabras: el normalizador las descarta.
+ *
+ * @author cvaro
+ */
+public class LectorEstructurado {
+
+    /**
+     * Receptor de los elementos que el lector va encontrando, en orden de aparición.
+     */
+    public interface Visitante {
+
+        /**
+         * Comienza un libro nuevo.
+         *
+         * @param nombre el título del libro tal como aparece en el texto
+         */
+        void libro(String nombre);
+
+        /**
+         * Comienza un capítulo (o salmo) del libro actual.
+         *
+         * @param numero número del capítulo
+         */
+        void capitulo(int numero);
+
+        /**
+         * Comienza un versículo del capítulo actual.
+         *
+         * @param numero número del versículo
+         */
+        void versiculo(int numero);
+
+        /**
+         * Aparece una palabra del versículo actual.
+         *
+         * @param palabra la palabra ya normalizada (nunca vacía)
+         * @param posicion posición de la palabra dentro del versículo, desde 0
+         */
+        void palabra(String palabra, int posicion);
+    }
+
+    /**
+     * Recorre el archivo y notifica su estructura al visitante.
+     *
+     * @param archivo ruta del archivo de texto (UTF-8)
+     * @param visitante receptor de libros, capítulos, versículos y palabras
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static void recorrer(String archivo, Visitante visitante) throws IOException {
+        List<String> lineas = leerLineas(archivo);
+        recorrer(lineas, 0, lineas.size(), visitante);
+    }
+
+    /**
+     * Lee todas las líneas del archivo.
+     *
+     * @param archivo ruta del archivo de texto (UTF-8)
+     * @return las líneas, sin los saltos de línea
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static List<String> leerLineas(String archivo) throws IOException {
+        return Files.readAllLines(Path.of(archivo), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna la línea en la que empieza cada libro, es decir, la de su título.
+     *
+     * Cada libro va desde su título hasta la línea anterior al título del
+     * siguiente, de modo que los libros se pueden recorrer por separado, por
+     * ejemplo en hilos distintos, con recorrer(lineas, desde, hasta, visitante).
+     *
+     * @param lineas todas las líneas del archivo
+     * @return los números de línea de los títulos, en orden
+     */
+    public static int[] iniciosDeLibros(List<String> lineas) {
+        int[] inicios = new int[16];
+        int n = 0;
+        for (int i = 0; i < lineas.size(); i++) {
+            if (lineas.get(i).isBlank() || !esTitulo(lineas, i)) continue;
+            if (n == inicios.length) inicios = Arrays.copyOf(inicios, 2 * n);
+            inicios[n++] = i;
+        }
+        return Arrays.copyOf(inicios, n);
+    }
+
+    /**
+     * Recorre las líneas [desde, hasta) y notifica su estructura al visitante.
+     *
+     * Las líneas anteriores al primer título del rango se ignoran.
+     *
+     * @param lineas todas las líneas del archivo
+     * @param desde primera línea del rango
+     * @param hasta línea siguiente a la última del rango
+     * @param visitante receptor de libros, capítulos, versículos y palabras
+     */
+    public static void recorrer(List<String> lineas, int desde, int hasta, Visitante visitante) {
+        NormalizadorPalabras normalizador = new NormalizadorPalabras();
+        boolean enLibro = false;
+        int versiculo = 0;
+        int posicion = 0;
+        for (int i = desde; i < hasta; i++) {
+            String linea = lineas.get(i).strip();
+            if (linea.isEmpty()) continue;
+            if (esTitulo(lineas, i)) {
+                visitante.libro(linea);
+                enLibro = true;
+                versiculo = 0;
+                continue;
+            }
+            int capitulo = numeroEncabezado(linea);
+            if (capitulo > 0) {
+                visitante.capitulo(capitulo);
+                versiculo = 0;
+                continue;
+            }
+            if (!enLibro) continue;
+            int inicio = 0;
+            int numero = numeroInicial(linea);
+            if (numero == versiculo + 1) {
+                versiculo = numero;
+                posicion = 0;
+                visitante.versiculo(numero);
+                inicio = longitudNumero(linea);
+            }
+            if (versiculo == 0) continue;
+            int n = linea.length();
+            while (inicio < n) {
+                while (inicio < n && LeerArchivo.esSeparador(linea.charAt(inicio))) inicio++;
+                int fin = inicio;
+                while (fin < n && !LeerArchivo.esSeparador(linea.charAt(fin))) fin++;
+                if (normalizador.normalizar(linea, inicio, fin) > 0) {
+                    visitante.palabra(normalizador.palabra(), posicion++);
+                }
+                inicio = fin;
+            }
+        }
+    }
+
+    /**
+     * Verifica si la línea i es el título de un libro.
+     */
+    private static boolean esTitulo(List<String> lineas, int i) {
+        if (numeroEncabezado(lineas.get(i).strip()) > 0) return false;
+        if (i > 0 && !lineas.get(i - 1).isBlank()) return false;
+        if (i + 1 >= lineas.size() || !lineas.get(i + 1).isBlank()) return false;
+        for (int j = i + 1; j < lineas.size(); j++) {
+            if (!lineas.get(j).isBlank())
+                return numeroEncabezado(lineas.get(j).strip()) > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Reconoce un encabezado "Capítulo N" o "Salmo N".
+     *
+     * @param linea la línea sin espacios en los extremos
+     * @return el número del capítulo, o 0 si la línea no es un encabezado
+     */
+    private static int numeroEncabezado(String linea) {
+        String resto;
+        if (linea.startsWith("Capítulo ")) resto = linea.substring(9);
+        else if (linea.startsWith("Salmo ")) resto = linea.substring(6);
+        else return 0;
+        int numero = numeroInicial(resto);
+        return longitudNumero(resto) == resto.length() ? numero : 0;
+    }
+
+    /**
+     * Lee el número con el que empieza una línea.
+     *
+     * @return el número, o 0 si la línea no empieza con una cifra
+     */
+    private static int numeroInicial(String linea) {
+        int numero = 0;
+        for (int i = 0; i < linea.length() && i < 9; i++) {
+            char c = linea.charAt(i);
+            if (c < '0' || c > '9') break;
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+
+    /**
+     * Cuenta las cifras con las que empieza una línea.
+     */
+    private static int longitudNumero(String linea) {
+        int i = 0;
+        while (i < linea.length() && linea.charAt(i) >= '0' && linea.charAt(i) <= '9') i++;
+        return i;
+    }
+}
@@ -14,7 +14,31 @@ package Txt;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import TablaOrdenada.ColaAcotada;
+import TablaOrdenada.ColaCircular;
+import TablaOrdenada.ColaCircularConcurrente;
+import TablaOrdenada.ContadorLargos;
+import TablaOrdenada.Metricas;
 import TablaOrdenada.TablaDeSimbolosOrdenada;
+import TablaOrdenada.TablaFrecuencias;
+import TablaOrdenada.TablaNGramas;
 
 public class LeerArchivo{
     
@@ -22,10 +46,11 @@ public class LeerArchivo{
      * Limpia y normaliza una palabra para procesamiento uniforme.
      * 
      * Aplica las siguientes transformaciones a la palabra de entrada:
-     * 1. Conversión a minúsculas
-     * 2. Eliminación de acentos (á→a, é→e, í→i, ó→o, ú→u, ü→u)
-     * 3. Normalización de la letra ñ→n
-     * 4. Eliminación de todos los caracteres no alfabéticos
+     * 1. Eliminación de las etiquetas de formato (&lt;I&gt;, &lt;/I&gt;)
+     * 2. Conversión a minúsculas
+     * 3. Eliminación de acentos (á→a, é→e, í→i, ó→o, ú→u, ü→u)
+     * 4. Normalización de la letra ñ→n
+     * 5. Eliminación de todos los caracteres no alfabéticos
      * 
      * Esta normalización permite un análisis consistente del texto,
      * tratando como equivalentes palabras que difieren solo en acentuación
@@ -35,55 +60,534 @@ public class LeerArchivo{
      * @return la palabra limpia y normalizada, o cadena vacía si la entrada es null
      */
     public static String limpiarPalabra(String palabra) {
-        if (palabra == null) return "";
-        return  palabra.toLowerCase()
-            .replace("á", "a")
-            .replace("é", "e")
-            .replace("í", "i")
-            .replace("ó", "o")
-            .replace("ú", "u")
-            .replace("ü", "u")
-            .replace("ñ", "n")  
-            .replaceAll("[^a-z]", "");
+        return NormalizadorPalabras.limpiar(palabra);
     }
+
+    /**
+     * Cuenta las palabras de un texto y acumula sus frecuencias en un contador hash.
+     * 
+     * Separa el texto por espacios en blanco (los mismos separadores que "\\s+")
+     * y normaliza cada palabra directamente sobre el texto con el normalizador
+     * dado, de modo que solo se crea una cadena por palabra no vacía.
+     * Cada palabra cuesta O(1) en el contador, sin desplazar ningún array; la
+     * frecuencia vive en un int[1] mutable para no crear un Integer por aparición.
+     * 
+     * @param texto texto a procesar (una línea o un fragmento del archivo)
+     * @param normalizador normalizador reutilizable del hilo actual
+     * @param contador mapa donde acumular las frecuencias
+     */
+    private static void contarPalabras(CharSequence texto, NormalizadorPalabras normalizador,
+            HashMap<String, int[]> contador) {
+        int n = texto.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && esSeparador(texto.charAt(i))) i++;
+            int j = i;
+            while (j < n && !esSeparador(texto.charAt(j))) j++;
+            if (normalizador.normalizar(texto, i, j) > 0) {
+                contador.computeIfAbsent(normalizador.palabra(), p -> new int[1])[0]++;
+            }
+            i = j;
+        }
+    }
+
+    /**
+     * Congela las frecuencias de un contador en la tabla de símbolos ordenada.
+     * 
+     * Suma al contador las frecuencias que ya tuviera la tabla y después
+     * reconstruye la tabla de una sola vez con construir(), que ordena
+     * todas las claves con un único ordenamiento.
+     * 
+     * @param contador frecuencias contadas en esta lectura
+     * @param tablaSimbolos tabla de símbolos a actualizar
+     */
+    private static void volcar(HashMap<String, int[]> contador,
+            TablaDeSimbolosOrdenada<String, Integer> tablaSimbolos) {
+        if (!tablaSimbolos.isEmpty()) {
+            for (String palabra : tablaSimbolos.keys(tablaSimbolos.min(), tablaSimbolos.max())) {
+                contador.computeIfAbsent(palabra, p -> new int[1])[0] += tablaSimbolos.get(palabra);
+            }
+        }
+        String[] claves = new String[contador.size()];
+        Integer[] valores = new Integer[contador.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> par : contador.entrySet()) {
+            claves[i] = par.getKey();
+            valores[i] = par.getValue()[0];
+            i++;
+        }
+        tablaSimbolos.construir(claves, valores, i);
+    }
+
+    /**
+     * Congela las frecuencias de un contador en la tabla de frecuencias.
+     * 
+     * Las frecuencias que ya tuviera la tabla se agregan como pares adicionales;
+     * construir() suma las claves repetidas al ordenar.
+     * 
+     * @param contador frecuencias contadas en esta lectura
+     * @param tablaFrecuencias tabla de frecuencias a actualizar
+     */
+    private static void volcar(HashMap<String, int[]> contador, TablaFrecuencias<String> tablaFrecuencias) {
+        int n = contador.size() + tablaFrecuencias.size();
+        String[] claves = new String[n];
+        int[] frecuencias = new int[n];
+        int i = 0;
+        for (Map.Entry<String, int[]> par : contador.entrySet()) {
+            claves[i] = par.getKey();
+            frecuencias[i] = par.getValue()[0];
+            i++;
+        }
+        for (int k = 0; k < tablaFrecuencias.size(); k++, i++) {
+            claves[i] = tablaFrecuencias.select(k);
+            frecuencias[i] = tablaFrecuencias.frecuenciaEn(k);
+        }
+        tablaFrecuencias.construir(claves, frecuencias, n);
+    }
+
+    /**
+     * Cuenta todas las palabras de un archivo leyéndolo línea por línea.
+     * 
+     * @param archivo ruta del archivo de texto
+     * @return contador con la frecuencia de cada palabra normalizada
+     * @throws IOException si el archivo no se puede leer
+     */
+    private static HashMap<String, int[]> contarArchivo(String archivo) throws IOException {
+        try (BufferedReader lector = new BufferedReader(new FileReader(archivo))) {
+            NormalizadorPalabras normalizador = new NormalizadorPalabras();
+            HashMap<String, int[]> contador = new HashMap<>();
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                contarPalabras(linea, normalizador, contador);
+            }
+            return contador;
+        }
+    }
+
+    /**
+     * Cuenta todas las palabras de un archivo mapeado en memoria, en paralelo.
+     * 
+     * @param archivo ruta del archivo de texto
+     * @return contador con la frecuencia de cada palabra normalizada
+     * @throws IOException si el archivo no se puede leer
+     */
+    private static HashMap<String, int[]> contarArchivoParalelo(String archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(Path.of(archivo), StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) return contarArchivo(archivo);
+            if (tamanio == 0) return new HashMap<>();
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+            int umbral = Math.max(TAMANIO_MINIMO_FRAGMENTO,
+                    (int) (tamanio / (ForkJoinPool.getCommonPoolParallelism() * 4L)));
+            return ForkJoinPool.commonPool().invoke(new ContarFragmento(datos, 0, (int) tamanio, umbral));
+        }
+    }
+
+    /**
+     * Cuenta las palabras de un archivo secuencialmente o en paralelo y, si las
+     * métricas están activas, registra los bytes, palabras y tiempo de la lectura.
+     */
+    private static HashMap<String, int[]> contar(String archivo, boolean paralelo) throws IOException {
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        HashMap<String, int[]> contador = paralelo ? contarArchivoParalelo(archivo) : contarArchivo(archivo);
+        if (Metricas.ACTIVAS) {
+            long tiempo = System.nanoTime() - inicio;
+            long tokens = 0;
+            for (int[] frecuencia : contador.values()) tokens += frecuencia[0];
+            Metricas.ingesta(Files.size(Path.of(archivo)), tokens, tiempo);
+        }
+        return contador;
+    }
+
     /**
      * Procesa un archivo de texto completo y actualiza una tabla de símbolos con frecuencias.
      * 
      * Lee el archivo línea por línea de manera eficiente usando BufferedReader,
      * divide cada línea en palabras usando espacios en blanco como separadores,
-     * limpia cada palabra usando limpiarPalabra(), y actualiza la tabla de símbolos 
-     * con las frecuencias de aparición.
+     * limpia cada palabra con un NormalizadorPalabras reutilizable, y cuenta
+     * las apariciones en un HashMap. Al terminar, el conteo se congela en la
+     * tabla de símbolos ordenada con una única construcción.
      * 
      * El procesamiento es incremental: si una palabra ya existe en la tabla,
-     * incrementa su contador; si es nueva, la inicializa con frecuencia 1.
+     * se suma su nueva frecuencia a la anterior.
+     * 
+     * Cuenta todas las palabras del archivo, sin mirar su estructura: en
+     * sagradas.txt también suman los títulos de los libros y los encabezados
+     * "Capítulo N", así que el resultado tiene algunas apariciones y palabras
+     * más que CorpusPorLibros, que solo cuenta los versículos. Lo mismo vale
+     * para procesarArchivoParalelo() y procesarFlujo().
      * 
      * Manejo de errores: Captura y reporta IOException sin interrumpir 
      * la ejecución del programa.
      * 
      * @param archivo ruta del archivo de texto a procesar
-     * @param tablaSimbolos tabla de símbolos donde almacenar las frecuencias.
-     *                      Debe ser una instancia de TablaDeSimbolosOrdenada con 
-     *                      String como clave e Integer como valor
+     * @param tablaSimbolos tabla de símbolos donde almacenar las frecuencias
      */
-    public static void procesarArchivo(String archivo, TablaDeSimbolosOrdenada tablaSimbolos) {
-        try (BufferedReader lector = new BufferedReader(new FileReader(archivo))) {
+    public static void procesarArchivo(String archivo, TablaDeSimbolosOrdenada<String, Integer> tablaSimbolos) {
+        try {
+            volcar(contar(archivo, false), tablaSimbolos);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa un archivo de texto completo y actualiza una tabla de frecuencias.
+     * 
+     * Igual que la versión para TablaDeSimbolosOrdenada, pero las frecuencias
+     * se guardan como int primitivos sin crear ningún Integer.
+     * 
+     * @param archivo ruta del archivo de texto a procesar
+     * @param tablaFrecuencias tabla de frecuencias donde almacenar los conteos
+     */
+    public static void procesarArchivo(String archivo, TablaFrecuencias<String> tablaFrecuencias) {
+        try {
+            volcar(contar(archivo, false), tablaFrecuencias);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa un archivo de texto en paralelo y actualiza una tabla de símbolos con frecuencias.
+     * 
+     * Mapea el archivo completo en memoria, lo divide en fragmentos cuyos límites
+     * caen siempre sobre un espacio en blanco (para no partir palabras) y cuenta
+     * cada fragmento en un trabajador del ForkJoinPool común sobre su propio
+     * contador parcial. Los contadores se combinan por pares (el menor se vuelca
+     * en el mayor) y el resultado se congela en la tabla destino una sola vez,
+     * sumado a las frecuencias que ya tuviera.
+     * 
+     * El resultado es idéntico al de procesarArchivo(): los separadores son los mismos
+     * que los de "\\s+" y el archivo se decodifica como UTF-8.
+     * Archivos de más de 2 GB no caben en un solo mapeo y se procesan secuencialmente.
+     * 
+     * @param archivo ruta del archivo de texto a procesar
+     * @param tablaSimbolos tabla de símbolos donde almacenar las frecuencias
+     */
+    public static void procesarArchivoParalelo(String archivo, TablaDeSimbolosOrdenada<String, Integer> tablaSimbolos) {
+        try {
+            volcar(contar(archivo, true), tablaSimbolos);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa un archivo de texto en paralelo y actualiza una tabla de frecuencias.
+     * 
+     * @param archivo ruta del archivo de texto a procesar
+     * @param tablaFrecuencias tabla de frecuencias donde almacenar los conteos
+     * @see #procesarArchivoParalelo(String, TablaDeSimbolosOrdenada)
+     */
+    public static void procesarArchivoParalelo(String archivo, TablaFrecuencias<String> tablaFrecuencias) {
+        try {
+            volcar(contar(archivo, true), tablaFrecuencias);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa un flujo de texto de cualquier tamaño y actualiza una tabla de frecuencias.
+     * 
+     * A diferencia de procesarArchivoParalelo(), no necesita tener el texto
+     * completo en memoria ni saber su tamaño, así que sirve para la entrada
+     * estándar o varios archivos concatenados. El hilo que llama lee el flujo
+     * línea por línea y arma bloques de LINEAS_POR_BLOQUE líneas, que entrega
+     * por una ColaAcotada a los hilos tokenizadores; cada tokenizador cuenta
+     * sus bloques en su propio contador. Por la cola viajan bloques y no
+     * palabras, de modo que no se crea ningún objeto por palabra además de
+     * su cadena. La cola tiene lugar para BLOQUES_EN_COLA bloques: si los
+     * tokenizadores no dan abasto el lector espera, y la memoria en uso no
+     * depende del tamaño del flujo sino del vocabulario.
+     * 
+     * Con un solo tokenizador la cola es una ColaCircular (un productor y un
+     * consumidor); con varios, una ColaCircularConcurrente. Al terminar el
+     * flujo los contadores se combinan y se vuelcan en la tabla una sola vez,
+     * sumados a las frecuencias que ya tuviera. El resultado es el mismo que
+     * el de procesarArchivo() sobre el mismo texto: como el flujo puede ser
+     * cualquier texto, tampoco distingue títulos ni encabezados de versículos.
+     * 
+     * Si un tokenizador falla, el lector lo nota antes de entregar el
+     * siguiente bloque o mientras espera lugar en la cola, detiene a los
+     * demás y lanza el error; la tabla no se modifica.
+     * 
+     * @param entrada flujo de texto; no se cierra
+     * @param tablaFrecuencias tabla de frecuencias donde almacenar los conteos
+     * @param tokenizadores número de hilos que cuentan palabras, al menos 1
+     * @throws IOException si falla la lectura del flujo o alguno de los tokenizadores
+     * @throws InterruptedIOException si el hilo se interrumpe mientras espera a los tokenizadores
+     */
+    public static void procesarFlujo(BufferedReader entrada, TablaFrecuencias<String> tablaFrecuencias,
+            int tokenizadores) throws IOException {
+        if (tokenizadores < 1) throw new IllegalArgumentException("se necesita al menos un tokenizador");
+        long inicio = Metricas.ACTIVAS ? System.nanoTime() : 0;
+        ColaAcotada<String[]> cola = tokenizadores == 1
+                ? new ColaCircular<>(BLOQUES_EN_COLA)
+                : new ColaCircularConcurrente<>(BLOQUES_EN_COLA);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Tokenizador[] trabajadores = new Tokenizador[tokenizadores];
+        Thread[] hilos = new Thread[tokenizadores];
+        for (int i = 0; i < tokenizadores; i++) {
+            trabajadores[i] = new Tokenizador(cola, error);
+            hilos[i] = Thread.ofPlatform().name("tokenizador-" + i).daemon().start(trabajadores[i]);
+        }
+        long caracteres = 0;
+        boolean terminado = false;
+        try {
+            String[] bloque = new String[LINEAS_POR_BLOQUE];
+            int n = 0;
             String linea;
-            while ((linea = lector.readLine()) != null) {
-                String[] palabras = linea.split("\\s+");
-                for (String palabra : palabras) {
-                    String limpia = limpiarPalabra(palabra);
-                    if (!limpia.isEmpty()) {
-                       Integer contador = (Integer)tablaSimbolos.get(limpia);
-                        if (contador == null) {
-                            tablaSimbolos.put(limpia, 1);
-                        } else {
-                            tablaSimbolos.put(limpia, contador + 1);
-                        }
-                    }
+            while ((linea = entrada.readLine()) != null) {
+                caracteres += linea.length() + 1;
+                bloque[n++] = linea;
+                if (n == LINEAS_POR_BLOQUE) {
+                    entregar(cola, bloque, error);
+                    bloque = new String[LINEAS_POR_BLOQUE];
+                    n = 0;
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Error al leer el archivo: " + e.getMessage());
+            if (n > 0) entregar(cola, Arrays.copyOf(bloque, n), error);
+            for (int i = 0; i < tokenizadores; i++) entregar(cola, FIN_DE_FLUJO, error);
+            for (Thread hilo : hilos) hilo.join();
+            revisarTokenizadores(error);
+            terminado = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("lectura del flujo interrumpida");
+        } finally {
+            // Si la lectura o un tokenizador falló, los demás no van a recibir el fin del flujo
+            if (!terminado) for (Thread hilo : hilos) hilo.interrupt();
+        }
+        HashMap<String, int[]> contador = trabajadores[0].contador;
+        for (int i = 1; i < tokenizadores; i++) contador = ContarFragmento.combinar(contador, trabajadores[i].contador);
+        if (Metricas.ACTIVAS) {
+            long tokens = 0;
+            for (int[] frecuencia : contador.values()) tokens += frecuencia[0];
+            // El flujo ya llega decodificado: se registran caracteres en lugar de bytes
+            Metricas.ingesta(caracteres, tokens, System.nanoTime() - inicio);
+        }
+        volcar(contador, tablaFrecuencias);
+    }
+
+    /**
+     * Cuenta los n-gramas (secuencias de n palabras seguidas) de un archivo.
+     * 
+     * Recorre el texto con LectorEstructurado, de modo que ningún n-grama cruza
+     * el final de un versículo. Cada palabra nueva recibe un identificador
+     * entero la primera vez que aparece y la ventana de las últimas n palabras
+     * se mantiene empaquetada en un long, que se cuenta en un ContadorLargos
+     * sin crear ningún objeto por n-grama.
+     * 
+     * @param archivo ruta del archivo de texto
+     * @param n palabras por n-grama, de 1 a TablaNGramas.MAXIMO_N
+     * @return la tabla ordenada de n-gramas con sus frecuencias
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static TablaNGramas contarNGramas(String archivo, int n) throws IOException {
+        if (n < 1 || n > TablaNGramas.MAXIMO_N)
+            throw new IllegalArgumentException("n debe estar entre 1 y " + TablaNGramas.MAXIMO_N);
+        ContadorNGramas contador = new ContadorNGramas(n);
+        LectorEstructurado.recorrer(archivo, contador);
+        return new TablaNGramas(n, contador.palabras, contador.conteo);
+    }
+
+    /**
+     * Visitante que cuenta los n-gramas de cada versículo mientras se recorre el texto.
+     */
+    private static class ContadorNGramas implements LectorEstructurado.Visitante {
+
+        final int n;
+        final long mascara;
+        final HashMap<String, int[]> ids = new HashMap<>();
+        final List<String> palabras = new ArrayList<>();
+        final ContadorLargos conteo = new ContadorLargos(1 << 18);
+        /** Identificadores de las últimas palabras del versículo, la más reciente en los bits bajos */
+        long ventana;
+        /** Palabras del versículo actual vistas hasta ahora */
+        int enVentana;
+
+        ContadorNGramas(int n) {
+            this.n = n;
+            this.mascara = (1L << (n * TablaNGramas.BITS_POR_PALABRA)) - 1;
+        }
+
+        @Override
+        public void libro(String nombre) {
+            enVentana = 0;
+        }
+
+        @Override
+        public void capitulo(int numero) {
+            enVentana = 0;
+        }
+
+        @Override
+        public void versiculo(int numero) {
+            enVentana = 0;
+        }
+
+        @Override
+        public void palabra(String palabra, int posicion) {
+            int id = ids.computeIfAbsent(palabra, p -> {
+                palabras.add(p);
+                return new int[] {palabras.size()};
+            })[0];
+            ventana = ((ventana << TablaNGramas.BITS_POR_PALABRA) | id) & mascara;
+            if (++enVentana >= n) conteo.incrementar(ventana);
+        }
+    }
+
+    /** Líneas que el lector de procesarFlujo() agrupa en cada bloque para los tokenizadores. */
+    private static final int LINEAS_POR_BLOQUE = 256;
+
+    /** Bloques que caben en la cola entre el lector y los tokenizadores de procesarFlujo(). */
+    private static final int BLOQUES_EN_COLA = 64;
+
+    /** Bloque que avisa a un tokenizador que el flujo terminó; se compara por identidad. */
+    private static final String[] FIN_DE_FLUJO = new String[0];
+
+    /** Tamaño mínimo, en bytes, de un fragmento antes de dejar de dividirlo. */
+    private static final int TAMANIO_MINIMO_FRAGMENTO = 1 << 16;
+
+    /**
+     * Verifica si un byte es uno de los separadores de "\\s" (espacio, tabuladores, saltos de línea y de página, retorno de carro).
+     * 
+     * En UTF-8 estos bytes nunca forman parte de un carácter multibyte,
+     * por lo que cortar sobre ellos no parte ningún carácter.
+     * 
+     * @param b el byte a verificar
+     * @return true si el byte es un separador
+     */
+    static boolean esSeparador(int b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    /**
+     * Tarea que cuenta las palabras de un fragmento [inicio, fin) del archivo mapeado.
+     * 
+     * Si el fragmento supera el umbral, se divide en dos por el primer separador
+     * a partir de la mitad y ambas mitades se cuentan en paralelo; después
+     * se combinan sus contadores parciales.
+     */
+    private static class ContarFragmento extends RecursiveTask<HashMap<String, int[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** La tarea nunca se serializa; el buffer mapeado tampoco podría */
+        private final transient ByteBuffer datos;
+        private final int inicio;
+        private final int fin;
+        private final int umbral;
+
+        ContarFragmento(ByteBuffer datos, int inicio, int fin, int umbral) {
+            this.datos = datos;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.umbral = umbral;
+        }
+
+        @Override
+        protected HashMap<String, int[]> compute() {
+            if (fin - inicio > umbral) {
+                int corte = inicio + (fin - inicio) / 2;
+                while (corte < fin && !esSeparador(datos.get(corte))) corte++;
+                if (corte < fin) {
+                    ContarFragmento izquierda = new ContarFragmento(datos, inicio, corte, umbral);
+                    ContarFragmento derecha = new ContarFragmento(datos, corte, fin, umbral);
+                    izquierda.fork();
+                    HashMap<String, int[]> b = derecha.compute();
+                    return combinar(izquierda.join(), b);
+                }
+            }
+            HashMap<String, int[]> contador = new HashMap<>();
+            CharBuffer texto = StandardCharsets.UTF_8.decode(datos.slice(inicio, fin - inicio));
+            contarPalabras(texto, new NormalizadorPalabras(), contador);
+            return contador;
+        }
+
+        /**
+         * Combina dos contadores parciales volcando el menor sobre el mayor.
+         * 
+         * @param a primer contador parcial
+         * @param b segundo contador parcial
+         * @return contador con la suma de las frecuencias de ambos
+         */
+        private static HashMap<String, int[]> combinar(HashMap<String, int[]> a, HashMap<String, int[]> b) {
+            if (a.size() < b.size()) {
+                HashMap<String, int[]> t = a;
+                a = b;
+                b = t;
+            }
+            for (Map.Entry<String, int[]> par : b.entrySet()) {
+                int[] frecuencia = a.putIfAbsent(par.getKey(), par.getValue());
+                if (frecuencia != null) frecuencia[0] += par.getValue()[0];
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Pone un bloque en la cola de procesarFlujo(), esperando mientras esté llena.
+     * 
+     * A diferencia de ColaAcotada.encolar(), entre intento e intento revisa
+     * si falló algún tokenizador: si fallaron todos, nadie vaciaría la cola
+     * y el lector esperaría para siempre.
+     * 
+     * @throws IOException si algún tokenizador falló
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    private static void entregar(ColaAcotada<String[]> cola, String[] bloque, AtomicReference<Throwable> error)
+            throws IOException, InterruptedException {
+        revisarTokenizadores(error);
+        for (int intento = 0; !cola.offer(bloque); intento++) {
+            revisarTokenizadores(error);
+            ColaAcotada.esperar(intento);
+        }
+    }
+
+    /**
+     * Lanza el primer error registrado por un tokenizador, si hay alguno.
+     * 
+     * @throws IOException con el error del tokenizador como causa
+     */
+    private static void revisarTokenizadores(AtomicReference<Throwable> error) throws IOException {
+        Throwable causa = error.get();
+        if (causa != null) throw new IOException("fallo un tokenizador del flujo", causa);
+    }
+
+    /**
+     * Hilo de procesarFlujo() que toma bloques de líneas de la cola y cuenta sus palabras.
+     * 
+     * Termina al recibir FIN_DE_FLUJO, si lo interrumpen o si falla; en el
+     * último caso deja el error en la referencia compartida para que el
+     * lector lo vea. El contador solo se lee después de que el hilo terminó.
+     */
+    private static class Tokenizador implements Runnable {
+
+        private final ColaAcotada<String[]> cola;
+        private final AtomicReference<Throwable> error;
+        private final HashMap<String, int[]> contador = new HashMap<>();
+
+        Tokenizador(ColaAcotada<String[]> cola, AtomicReference<Throwable> error) {
+            this.cola = cola;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            NormalizadorPalabras normalizador = new NormalizadorPalabras();
+            try {
+                for (String[] bloque = cola.desencolar(); bloque != FIN_DE_FLUJO; bloque = cola.desencolar()) {
+                    for (String linea : bloque) contarPalabras(linea, normalizador, contador);
+                }
+            } catch (InterruptedException e) {
+                // El lector abandonó el flujo; su contador ya no se usa
+            } catch (Throwable e) {
+                // Sin esto el hilo moriría en silencio y el lector no sabría que el conteo quedó incompleto
+                error.compareAndSet(null, e);
+            }
         }
     }
 }
@@ -0,0 +1,302 @@
+package Txt;
+
+import java.util.Arrays;
+
+/**
+ * Lista de apariciones (postings) de una palabra, comprimida con deltas y varints.
+ *
+ * Cada versículo en que aparece la palabra se guarda como un grupo:
+ * <pre>
+ *   [versículo - versículo anterior] [número de posiciones] [posición - posición anterior]...
+ * </pre>
+ * donde cada número se codifica como varint (7 bits por byte, el bit alto indica
+ * que siguen más bytes). Como los versículos y las posiciones crecen, los deltas
+ * son pequeños y casi siempre ocupan un solo byte.
+ *
+ * Cada INTERVALO_SALTO grupos se guarda un puntero de salto (versículo y desplazamiento
+ * en bytes) que permite a un cursor avanzar hasta un versículo sin decodificar
+ * todos los grupos intermedios; es lo que hace rápidas las intersecciones.
+ *
+ * La lista se construye agregando apariciones en orden y se cierra con cerrar();
+ * a partir de entonces es inmutable y puede leerse con varios cursores a la vez.
+ *
+ * @author cvaro
+ */
+public class ListaPosiciones {
+
+    /** Cada cuántos grupos (versículos) se guarda un puntero de salto */
+    private static final int INTERVALO_SALTO = 32;
+
+    /** Bytes codificados */
+    private byte[] datos = new byte[8];
+
+    /** Número de bytes usados en datos */
+    private int longitud;
+
+    /** Número de versículos distintos (grupos) en la lista */
+    private int versiculos;
+
+    /** Número total de apariciones */
+    private int apariciones;
+
+    /** Versículo del grupo al que apunta cada salto */
+    private int[] saltoVersiculo = new int[0];
+
+    /** Versículo del grupo anterior a cada salto, base para decodificar su delta */
+    private int[] saltoBase = new int[0];
+
+    /** Desplazamiento en bytes del grupo al que apunta cada salto */
+    private int[] saltoOffset = new int[0];
+
+    /** Número de saltos registrados */
+    private int saltos;
+
+    /** Último versículo agregado (o -1 si no hay ninguno) */
+    private int ultimoVersiculo = -1;
+
+    /** Posiciones pendientes del versículo que se está agregando */
+    private int[] pendientes = new int[4];
+
+    /** Número de posiciones pendientes */
+    private int numPendientes;
+
+    /** Versículo del último grupo ya escrito en datos */
+    private int versiculoEscrito = -1;
+
+    /**
+     * Agrega una aparición de la palabra.
+     *
+     * Las apariciones deben llegar ordenadas por versículo y, dentro de un
+     * mismo versículo, por posición creciente.
+     *
+     * @param versiculo identificador global del versículo
+     * @param posicion posición de la palabra dentro del versículo
+     */
+    public void agregar(int versiculo, int posicion) {
+        if (versiculo != ultimoVersiculo) {
+            escribirGrupo();
+            ultimoVersiculo = versiculo;
+        }
+        if (numPendientes == pendientes.length)
+            pendientes = Arrays.copyOf(pendientes, 2 * numPendientes);
+        pendientes[numPendientes++] = posicion;
+        apariciones++;
+    }
+
+    /**
+     * Escribe el grupo pendiente (si lo hay) y registra un salto cuando corresponde.
+     */
+    private void escribirGrupo() {
+        if (numPendientes == 0) return;
+        if (versiculos % INTERVALO_SALTO == 0) {
+            if (saltos == saltoOffset.length) {
+                int capacidad = Math.max(1, 2 * saltos);
+                saltoVersiculo = Arrays.copyOf(saltoVersiculo, capacidad);
+                saltoBase = Arrays.copyOf(saltoBase, capacidad);
+                saltoOffset = Arrays.copyOf(saltoOffset, capacidad);
+            }
+            saltoVersiculo[saltos] = ultimoVersiculo;
+            saltoBase[saltos] = versiculoEscrito;
+            saltoOffset[saltos] = longitud;
+            saltos++;
+        }
+        escribirVarint(ultimoVersiculo - versiculoEscrito);
+        escribirVarint(numPendientes);
+        int anterior = 0;
+        for (int i = 0; i < numPendientes; i++) {
+            escribirVarint(pendientes[i] - anterior);
+            anterior = pendientes[i];
+        }
+        versiculoEscrito = ultimoVersiculo;
+        versiculos++;
+        numPendientes = 0;
+    }
+
+    /**
+     * Codifica un entero no negativo como varint al final de datos.
+     */
+    private void escribirVarint(int valor) {
+        if (longitud + 5 > datos.length)
+            datos = Arrays.copyOf(datos, Math.max(longitud + 5, 2 * datos.length));
+        while ((valor & ~0x7F) != 0) {
+            datos[longitud++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos[longitud++] = (byte) valor;
+    }
+
+    /**
+     * Termina la construcción y ajusta los arrays a su tamaño exacto.
+     */
+    public void cerrar() {
+        escribirGrupo();
+        datos = Arrays.copyOf(datos, longitud);
+        saltoVersiculo = Arrays.copyOf(saltoVersiculo, saltos);
+        saltoBase = Arrays.copyOf(saltoBase, saltos);
+        saltoOffset = Arrays.copyOf(saltoOffset, saltos);
+        pendientes = null;
+    }
+
+    /**
+     * Retorna el número de versículos en que aparece la palabra.
+     *
+     * @return frecuencia de documento de la palabra
+     */
+    public int versiculos() {
+        return versiculos;
+    }
+
+    /**
+     * Retorna el número total de apariciones de la palabra.
+     *
+     * @return frecuencia total de la palabra
+     */
+    public int apariciones() {
+        return apariciones;
+    }
+
+    /**
+     * Retorna el número de bytes que ocupa la lista comprimida.
+     *
+     * @return tamaño de los datos codificados
+     */
+    public int bytes() {
+        return longitud;
+    }
+
+    /**
+     * Crea un cursor posicionado antes del primer versículo de la lista.
+     *
+     * @return un cursor nuevo
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor que recorre los versículos de la lista en orden creciente.
+     *
+     * Tras cada siguiente() o avanzarHasta() exitoso, versiculo() y
+     * posiciones() describen el grupo actual.
+     */
+    public class Cursor {
+
+        /** Desplazamiento del siguiente grupo por decodificar */
+        private int offset;
+
+        /** Índice del siguiente grupo por decodificar */
+        private int grupo;
+
+        /** Versículo actual (o el anterior al primero) */
+        private int versiculo = -1;
+
+        /** Posiciones del versículo actual */
+        private int[] posiciones = new int[4];
+
+        /** Número de posiciones del versículo actual */
+        private int cuenta;
+
+        /**
+         * Avanza al siguiente versículo de la lista.
+         *
+         * @return false si la lista se agotó
+         */
+        public boolean siguiente() {
+            if (grupo >= versiculos) {
+                versiculo = Integer.MAX_VALUE;
+                return false;
+            }
+            versiculo += leerVarint();
+            cuenta = leerVarint();
+            if (posiciones.length < cuenta) posiciones = new int[cuenta];
+            int posicion = 0;
+            for (int i = 0; i < cuenta; i++) {
+                posicion += leerVarint();
+                posiciones[i] = posicion;
+            }
+            grupo++;
+            return true;
+        }
+
+        /**
+         * Avanza hasta el primer versículo mayor o igual que el objetivo.
+         *
+         * Usa los punteros de salto para saltarse bloques enteros de grupos
+         * cuyo versículo es menor que el objetivo.
+         *
+         * @param objetivo versículo buscado
+         * @return false si la lista se agotó sin alcanzar el objetivo
+         */
+        public boolean avanzarHasta(int objetivo) {
+            if (grupo > 0 && versiculo >= objetivo) return versiculo != Integer.MAX_VALUE;
+            int s = grupo / INTERVALO_SALTO + 1;
+            int destino = -1;
+            while (s < saltos && saltoVersiculo[s] <= objetivo) {
+                destino = s;
+                s++;
+            }
+            if (destino >= 0) {
+                offset = saltoOffset[destino];
+                versiculo = saltoBase[destino];
+                grupo = destino * INTERVALO_SALTO;
+            }
+            while (siguiente()) {
+                if (versiculo >= objetivo) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Retorna el versículo actual.
+         *
+         * @return identificador del versículo, o Integer.MAX_VALUE si la lista se agotó
+         */
+        public int versiculo() {
+            return versiculo;
+        }
+
+        /**
+         * Retorna las posiciones de la palabra en el versículo actual.
+         * Solo las primeras cuenta() posiciones son válidas, en orden creciente.
+         *
+         * @return buffer de posiciones del cursor
+         */
+        public int[] posiciones() {
+            return posiciones;
+        }
+
+        /**
+         * Retorna el número de apariciones en el versículo actual.
+         *
+         * @return número de posiciones válidas
+         */
+        public int cuenta() {
+            return cuenta;
+        }
+
+        /**
+         * Verifica si la palabra aparece en una posición del versículo actual.
+         *
+         * @param posicion posición buscada
+         * @return true si la palabra está en esa posición
+         */
+        public boolean tienePosicion(int posicion) {
+            return Arrays.binarySearch(posiciones, 0, cuenta, posicion) >= 0;
+        }
+
+        /**
+         * Decodifica el siguiente varint de la lista.
+         */
+        private int leerVarint() {
+            int valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[offset++];
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return valor;
+        }
+    }
+}
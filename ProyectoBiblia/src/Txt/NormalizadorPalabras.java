@@ -0,0 +1,134 @@
+package Txt;
+
+/**
+ * Normalizador de palabras en una sola pasada, sin crear cadenas intermedias.
+ *
+ * Aplica la normalización clásica (minúsculas, eliminación de acentos, ñ→n
+ * y eliminación de todo lo que no sea una letra de la 'a' a la 'z'), pero
+ * recorre los caracteres una sola vez consultando una tabla precalculada que
+ * asigna a cada carácter UTF-16 su letra normalizada, o 0 si el carácter debe
+ * descartarse.
+ *
+ * Además descarta las etiquetas de formato del texto, como &lt;I&gt; y
+ * &lt;/I&gt;: sin esto "&lt;I&gt;estaban&lt;/I&gt;" quedaría como "iestabani".
+ * Una etiqueta va de un '&lt;' al siguiente '&gt;' dentro de la misma palabra;
+ * un '&lt;' sin cierre se descarta solo, como cualquier otro signo.
+ *
+ * Cada instancia mantiene un buffer reutilizable, por lo que no es segura
+ * para uso concurrente: cada hilo debe usar su propio normalizador.
+ *
+ * @author cvaro
+ */
+public class NormalizadorPalabras {
+
+    /** Letra normalizada ('a'..'z') para cada carácter UTF-16, o 0 si se descarta */
+    private static final byte[] TABLA = construirTabla();
+
+    /** Buffer reutilizable donde se escribe la última palabra normalizada */
+    private char[] buffer = new char[32];
+
+    /** Longitud de la última palabra normalizada */
+    private int longitud;
+
+    /**
+     * Construye la tabla de traducción pasando cada carácter a minúscula,
+     * quitándole el acento y quedándose solo con las letras de la 'a' a la 'z'.
+     *
+     * Usa Character.toLowerCase, que no depende del locale, y no crea ningún
+     * objeto, así que armar la tabla de 65.536 entradas toma pocos milisegundos.
+     *
+     * @return la tabla de traducción
+     */
+    private static byte[] construirTabla() {
+        byte[] tabla = new byte[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char letra = sinAcento(Character.toLowerCase((char) c));
+            if (letra >= 'a' && letra <= 'z') tabla[c] = (byte) letra;
+        }
+        return tabla;
+    }
+
+    /**
+     * Reemplaza las vocales acentuadas y la ñ por su letra sin acento.
+     */
+    private static char sinAcento(char c) {
+        return switch (c) {
+            case 'á' -> 'a';
+            case 'é' -> 'e';
+            case 'í' -> 'i';
+            case 'ó' -> 'o';
+            case 'ú', 'ü' -> 'u';
+            case 'ñ' -> 'n';
+            default -> c;
+        };
+    }
+
+    /**
+     * Normaliza una palabra creando solo la cadena resultante.
+     *
+     * @param palabra la palabra original a limpiar
+     * @return la palabra limpia y normalizada, o cadena vacía si la entrada es null
+     */
+    public static String limpiar(String palabra) {
+        if (palabra == null) return "";
+        int n = palabra.length();
+        char[] salida = new char[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            char c = palabra.charAt(i);
+            if (c == '<') {
+                i = finDeEtiqueta(palabra, i, n);
+                continue;
+            }
+            byte letra = TABLA[c];
+            if (letra != 0) salida[k++] = (char) letra;
+        }
+        return k == 0 ? "" : new String(salida, 0, k);
+    }
+
+    /**
+     * Normaliza los caracteres [inicio, fin) de un texto en el buffer interno.
+     *
+     * No crea ningún objeto salvo cuando el buffer debe crecer; el resultado
+     * queda disponible mediante palabra() hasta la siguiente llamada.
+     *
+     * @param texto texto que contiene la palabra
+     * @param inicio posición del primer carácter (inclusiva)
+     * @param fin posición final (exclusiva)
+     * @return la longitud de la palabra normalizada (0 si se descartó por completo)
+     */
+    public int normalizar(CharSequence texto, int inicio, int fin) {
+        if (buffer.length < fin - inicio)
+            buffer = new char[Math.max(fin - inicio, 2 * buffer.length)];
+        int k = 0;
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c == '<') {
+                i = finDeEtiqueta(texto, i, fin);
+                continue;
+            }
+            byte letra = TABLA[c];
+            if (letra != 0) buffer[k++] = (char) letra;
+        }
+        longitud = k;
+        return k;
+    }
+
+    /**
+     * Retorna la posición del '&gt;' que cierra la etiqueta abierta en i, o i si no se cierra antes de fin.
+     */
+    private static int finDeEtiqueta(CharSequence texto, int i, int fin) {
+        for (int j = i + 1; j < fin; j++)
+            if (texto.charAt(j) == '>') return j;
+        return i;
+    }
+
+    /**
+     * Crea una cadena con la última palabra normalizada.
+     *
+     * @return la palabra normalizada
+     */
+    public String palabra() {
+        return new String(buffer, 0, longitud);
+    }
+}